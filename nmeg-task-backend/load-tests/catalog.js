@@ -0,0 +1,175 @@
+// Replays the frontend's GraphQL documents against a generated catalog at a fixed concurrency.
+//
+// Start the backend with the loadtest profile, which seeds an empty database through
+// CatalogGenerator (size it with APP_GENERATOR_* variables) and turns on Hibernate statistics:
+//
+//   mkdir -p load-tests/results
+//   SPRING_PROFILES_ACTIVE=loadtest ./mvnw spring-boot:run
+//   k6 run -e VUS=50 -e DURATION=60s load-tests/catalog.js
+//
+// Queries are read from nmeg-task-frontend/src/graphql/queries.ts, so the load matches what the
+// UI sends. Each request picks one at random using WEIGHTS. The run writes
+// load-tests/results/catalog-<vus>.json with throughput, p50/p99 latency per query, SQL
+// statements per request (hibernate.statements) and the heap allocation rate
+// (jvm.gc.memory.allocated), both read from the actuator before and after the run.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = Number(__ENV.VUS || 50);
+const PAGE_SIZE = Number(__ENV.PAGE_SIZE || 20);
+
+// Relative share of each query in the mix
+const WEIGHTS = {
+  GET_PRODUCTS: 40,
+  GET_CATEGORIES: 15,
+  SEARCH_PRODUCTS: 20,
+  SEARCH_CATEGORIES: 5,
+  SUGGEST_PRODUCTS: 20,
+};
+
+// Words the generator uses in product and category names
+const TERMS = ['oak', 'walnut', 'brass', 'steel', 'linen', 'modern', 'rustic', 'nordic', 'desk', 'chair', 'lamp', 'shelf', 'table'];
+const DEPARTMENTS = ['Living', 'Bedroom', 'Office', 'Kitchen', 'Outdoor', 'Lighting', 'Storage', 'Decor'];
+
+const QUERIES = {};
+for (const match of open('../../nmeg-task-frontend/src/graphql/queries.ts').matchAll(/export const (\w+) = gql`([\s\S]*?)`/g)) {
+  QUERIES[match[1]] = match[2];
+}
+
+const latency = {};
+for (const name of Object.keys(WEIGHTS)) {
+  if (!QUERIES[name]) {
+    throw new Error(`${name} not found in queries.ts`);
+  }
+  latency[name] = new Trend(`latency_${name}`, true);
+}
+const sqlStatements = new Counter('sql_statements');
+const allocatedBytes = new Counter('allocated_bytes');
+
+export const options = {
+  scenarios: {
+    catalog: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: __ENV.DURATION || '60s',
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max', 'count'],
+};
+
+function pick(values) {
+  return values[Math.floor(Math.random() * values.length)];
+}
+
+function variables(name) {
+  switch (name) {
+    case 'SEARCH_PRODUCTS':
+      return { query: pick(TERMS), first: PAGE_SIZE };
+    case 'SEARCH_CATEGORIES':
+      return { name: pick(DEPARTMENTS), first: PAGE_SIZE };
+    case 'SUGGEST_PRODUCTS':
+      return { prefix: pick(TERMS).slice(0, 2 + Math.floor(Math.random() * 3)) };
+    default:
+      return { first: PAGE_SIZE };
+  }
+}
+
+function nextQuery() {
+  const total = Object.values(WEIGHTS).reduce((sum, weight) => sum + weight, 0);
+  let roll = Math.random() * total;
+  for (const [name, weight] of Object.entries(WEIGHTS)) {
+    roll -= weight;
+    if (roll < 0) {
+      return name;
+    }
+  }
+  return 'GET_PRODUCTS';
+}
+
+function metric(name, tags) {
+  const query = tags ? '?' + tags.map((tag) => `tag=${tag}`).join('&') : '';
+  const response = http.get(`${BASE_URL}/actuator/metrics/${name}${query}`);
+  if (response.status !== 200) {
+    return null;
+  }
+  return response.json('measurements.0.value');
+}
+
+function counters() {
+  return {
+    time: Date.now(),
+    statements: metric('hibernate.statements', ['status:prepared']),
+    allocated: metric('jvm.gc.memory.allocated'),
+  };
+}
+
+export function setup() {
+  return counters();
+}
+
+export default function () {
+  const name = nextQuery();
+  const response = http.post(`${BASE_URL}/graphql`,
+    JSON.stringify({ query: QUERIES[name], variables: variables(name) }),
+    { headers: { 'Content-Type': 'application/json' }, tags: { query: name } });
+  latency[name].add(response.timings.duration);
+  check(response, {
+    'status is 200': (r) => r.status === 200,
+    'no GraphQL errors': (r) => !r.json('errors'),
+  });
+}
+
+// Server-side counters are read over HTTP, which handleSummary cannot do
+export function teardown(before) {
+  const after = counters();
+  if (before.statements !== null && after.statements !== null) {
+    sqlStatements.add(after.statements - before.statements);
+  }
+  if (before.allocated !== null && after.allocated !== null) {
+    allocatedBytes.add(after.allocated - before.allocated);
+  }
+}
+
+function count(data, name) {
+  return data.metrics[name] ? data.metrics[name].values.count : null;
+}
+
+export function handleSummary(data) {
+  const seconds = data.state.testRunDurationMs / 1000;
+  const queries = {};
+  let requests = 0;
+  let failed = 0;
+  for (const name of Object.keys(WEIGHTS)) {
+    const values = data.metrics[`latency_${name}`] ? data.metrics[`latency_${name}`].values : null;
+    if (values) {
+      queries[name] = { count: values.count, p50: values.med, p99: values['p(99)'] };
+      requests += values.count;
+    }
+  }
+  const checks = data.metrics.checks ? data.metrics.checks.values : null;
+  if (checks) {
+    failed = checks.fails;
+  }
+  const statements = count(data, 'sql_statements');
+  const allocated = count(data, 'allocated_bytes');
+  const summary = {
+    vus: VUS,
+    requests,
+    requestsPerSecond: requests / seconds,
+    latencyMs: {
+      p50: data.metrics.http_req_duration.values.med,
+      p99: data.metrics.http_req_duration.values['p(99)'],
+    },
+    queries,
+    failedChecks: failed,
+    // null when hibernate statistics are off or the actuator is unreachable
+    sqlStatementsPerRequest: statements === null || requests === 0 ? null : statements / requests,
+    allocatedMegabytesPerSecond: allocated === null ? null : allocated / seconds / (1024 * 1024),
+  };
+  return {
+    stdout: JSON.stringify(summary, null, 2) + '\n',
+    [`load-tests/results/catalog-${VUS}.json`]: JSON.stringify(summary, null, 2),
+  };
+}
@@ -0,0 +1,65 @@
+// Compares platform-thread and virtual-thread request handling under the same load.
+//
+// Start the backend once per mode against the same seeded database, then run k6 against each:
+//
+//   mkdir -p load-tests/results
+//   SPRING_THREADS_VIRTUAL_ENABLED=false ./mvnw spring-boot:run
+//   k6 run -e MODE=platform load-tests/thread-modes.js
+//
+//   SPRING_THREADS_VIRTUAL_ENABLED=true ./mvnw spring-boot:run
+//   k6 run -e MODE=virtual load-tests/thread-modes.js
+//
+// Each run writes load-tests/results/thread-modes-<mode>.json with throughput, p50/p95/p99
+// latency and the error rate. Raise VUS past server.tomcat.threads.max (200) to see where the
+// platform pool starts queueing requests.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODE = __ENV.MODE || 'unknown';
+
+export const options = {
+  scenarios: {
+    products: {
+      executor: 'constant-vus',
+      vus: Number(__ENV.VUS || 400),
+      duration: __ENV.DURATION || '60s',
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+// Sibling fields category and images resolve through separate batch loaders
+const PRODUCTS = `
+  query Products($first: Int) {
+    products(first: $first) {
+      edges { node { id name category { id name } images { id url } } }
+      pageInfo { hasNextPage endCursor }
+    }
+  }
+`;
+
+export default function () {
+  const response = http.post(`${BASE_URL}/graphql`,
+    JSON.stringify({ query: PRODUCTS, variables: { first: 50 } }),
+    { headers: { 'Content-Type': 'application/json' } });
+  check(response, {
+    'status is 200': (r) => r.status === 200,
+    'no GraphQL errors': (r) => !r.json('errors'),
+  });
+}
+
+export function handleSummary(data) {
+  const duration = data.metrics.http_req_duration.values;
+  const summary = {
+    mode: MODE,
+    vus: options.scenarios.products.vus,
+    requestsPerSecond: data.metrics.http_reqs.values.rate,
+    latencyMs: { p50: duration.med, p95: duration['p(95)'], p99: duration['p(99)'], max: duration.max },
+    failedRate: data.metrics.http_req_failed.values.rate,
+  };
+  return {
+    stdout: JSON.stringify(summary, null, 2) + '\n',
+    [`load-tests/results/thread-modes-${MODE}.json`]: JSON.stringify(summary, null, 2),
+  };
+}
@@ -0,0 +1,32 @@
+package org.example.nmegtaskbackend;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Starts the application for benchmarks on the "test" profile: H2 in PostgreSQL mode, the
+// filesystem image store and the shared 50 category / 1000 product catalog. There is no web
+// server; benchmarks call the beans directly.
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    // properties are key=value pairs that override the configuration files
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of("--spring.main.banner-mode=off", "--logging.level.root=WARN",
+                // Statistics collection would skew every JPA benchmark
+                "--spring.jpa.properties.hibernate.generate_statistics=false"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(NmegTaskBackendApplication.class, TestCatalog.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+        context.getBean(TestCatalog.class).seed();
+        return context;
+    }
+}
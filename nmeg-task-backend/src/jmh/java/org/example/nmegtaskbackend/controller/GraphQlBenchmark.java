@@ -0,0 +1,95 @@
+package org.example.nmegtaskbackend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.nmegtaskbackend.BenchmarkApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Full GraphQL execution of the catalog queries the frontend sends, against H2, plus the JSON
+// serialization of a result as the HTTP transport does it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQlBenchmark {
+
+    private static final String PRODUCTS = """
+            query {
+              products(first: 100) {
+                edges { node { id name description category { id name } images { id url } } }
+                pageInfo { hasNextPage endCursor }
+              }
+            }
+            """;
+
+    private static final String CATEGORIES = """
+            query {
+              categories(first: 50) {
+                edges { node { id name validFrom validTo products { id name } } }
+                pageInfo { hasNextPage endCursor }
+              }
+            }
+            """;
+
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+    private ObjectMapper objectMapper;
+    private Map<String, Object> productsResult;
+
+    @Setup
+    public void start() {
+        context = BenchmarkApplication.start();
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        productsResult = products();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> products() {
+        return execute(PRODUCTS);
+    }
+
+    @Benchmark
+    public Map<String, Object> categories() {
+        return execute(CATEGORIES);
+    }
+
+    @Benchmark
+    public byte[] serializeProductsResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productsResult);
+    }
+
+    private Map<String, Object> execute(String document) {
+        ExecutionGraphQlResponse response = graphQlService
+                .execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "benchmark", null))
+                .block();
+        if (!response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Query failed: " + response.getErrors());
+        }
+        return response.toMap();
+    }
+}
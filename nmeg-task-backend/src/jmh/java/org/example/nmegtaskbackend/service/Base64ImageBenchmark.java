@@ -0,0 +1,60 @@
+package org.example.nmegtaskbackend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Data-URL stripping, validation and streaming decode of the legacy ProductInput.images path,
+// against decoding the whole string into one array as a reference
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base64ImageBenchmark {
+
+    @Param({"65536", "1048576"})
+    private int imageSize;
+
+    private String dataUrl;
+    private final byte[] buffer = new byte[8192];
+
+    @Setup
+    public void createImage() {
+        byte[] image = new byte[imageSize];
+        new Random(42).nextBytes(image);
+        dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(image);
+    }
+
+    @Benchmark
+    public long streamingDecode() throws IOException {
+        long total = 0;
+        try (InputStream in = ProductImageService.base64Content(dataUrl, 0).getSource().getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public byte[] decodeToArray() {
+        return Base64.getDecoder().decode(dataUrl.substring(dataUrl.indexOf(',') + 1));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.BenchmarkApplication;
+import org.example.nmegtaskbackend.dto.ImageVariant;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Decode, resize and re-encode of a 1600x1200 photo-like upload. Both variant caches are sized
+// to zero so every call generates the variant.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageVariantBenchmark {
+
+    @Param({"200", "800"})
+    private int width;
+
+    @Param({"jpeg", "png"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private ImageVariantService imageVariantService;
+    private ProductImageSummary image;
+
+    @Setup
+    public void uploadImage() throws IOException {
+        context = BenchmarkApplication.start(
+                "app.images.variants.memory-cache-size=0B",
+                "app.images.variants.disk-cache-size=0B");
+        imageVariantService = context.getBean(ImageVariantService.class);
+        ProductImageService productImageService = context.getBean(ProductImageService.class);
+
+        Long id = productImageService.upload(List.of(new MockMultipartFile("files", "photo.png", "image/png", photo()))).get(0).getId();
+        image = productImageService.getImage(id).orElseThrow();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<ImageVariant> generateVariant() {
+        return imageVariantService.getVariant(image, width, format);
+    }
+
+    // Smooth gradients with noise compress roughly like a product photo
+    private static byte[] photo() throws IOException {
+        BufferedImage photo = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < photo.getHeight(); y++) {
+            for (int x = 0; x < photo.getWidth(); x++) {
+                int noise = random.nextInt(16);
+                photo.setRGB(x, y, (x * 255 / photo.getWidth() + noise) << 16 | (y * 255 / photo.getHeight() + noise) << 8 | 128 + noise);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", out);
+        return out.toByteArray();
+    }
+}
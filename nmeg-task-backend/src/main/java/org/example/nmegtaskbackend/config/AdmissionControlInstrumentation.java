@@ -0,0 +1,107 @@
+package org.example.nmegtaskbackend.config;
+
+import graphql.ErrorClassification;
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+// Admits each GraphQL operation through the AdmissionController before any data fetcher runs,
+// and releases it with the operation's latency once the result is complete. A query's kind is the
+// set of root fields it selects; mutations get none, so their latency, which grows with bulk
+// inputs, never moves the limit. Mutations, and queries that select nothing but priorityFields
+// (such as product(id)), use the priority lane; everything else the standard one. Subscriptions
+// hold no connection while open and are not limited. A rejected operation gets a single
+// OVERLOADED error marked retryable.
+public class AdmissionControlInstrumentation extends SimplePerformantInstrumentation {
+
+    private final AdmissionController admissionController;
+    private final Set<String> priorityFields;
+
+    AdmissionControlInstrumentation(AdmissionController admissionController, Set<String> priorityFields) {
+        this.admissionController = admissionController;
+        this.priorityFields = priorityFields;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new Admission();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        OperationDefinition operation = parameters.getExecutionContext().getOperationDefinition();
+        if (operation.getOperation() == OperationDefinition.Operation.SUBSCRIPTION) {
+            return super.beginExecuteOperation(parameters, state);
+        }
+        if (!admissionController.tryAcquire(lane(operation))) {
+            throw new AbortExecutionException(List.of(GraphqlErrorBuilder.newError()
+                    .errorType(ErrorClassification.errorClassification("OVERLOADED"))
+                    .message("Server is busy; retry the request shortly")
+                    .extensions(Map.of("retryable", true))
+                    .build()));
+        }
+        Admission admission = (Admission) state;
+        admission.kind = kind(operation);
+        admission.startNanos = System.nanoTime();
+        admission.admitted = true;
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        Admission admission = (Admission) state;
+        if (admission.admitted) {
+            admission.admitted = false;
+            admissionController.release(admission.kind, System.nanoTime() - admission.startNanos);
+        }
+        return CompletableFuture.completedFuture(executionResult);
+    }
+
+    private static String kind(OperationDefinition operation) {
+        if (operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return null;
+        }
+        return operation.getSelectionSet().getSelections().stream()
+                .map(selection -> selection instanceof Field field ? field.getName() : "...")
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+
+    private AdmissionController.Lane lane(OperationDefinition operation) {
+        if (operation.getOperation() == OperationDefinition.Operation.MUTATION) {
+            return AdmissionController.Lane.PRIORITY;
+        }
+        // Fragments at the root could select anything, so they count as standard
+        for (Selection<?> selection : operation.getSelectionSet().getSelections()) {
+            if (!(selection instanceof Field field) || !(priorityFields.contains(field.getName()) || field.getName().startsWith("__"))) {
+                return AdmissionController.Lane.STANDARD;
+            }
+        }
+        return AdmissionController.Lane.PRIORITY;
+    }
+
+    private static class Admission implements InstrumentationState {
+
+        private volatile boolean admitted;
+        private volatile String kind;
+        private volatile long startNanos;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Adaptive limit on concurrently executing GraphQL operations (see AdmissionControlInstrumentation).
+// The limit follows AIMD on operation latency, which under load is mostly time spent waiting for
+// and holding JDBC connections. Operations differ by orders of magnitude, so each kind is judged
+// against its own baseline, a slow-moving average of its latency: one that takes longer than
+// latencyTolerance times its baseline, and longer than latencyThreshold, cuts the limit by
+// backoffRatio; any other raises it by one while at least half of it is in use. Operations
+// released without a kind, such as mutations whose cost grows with their input, only free their
+// slot. The priority lane may use the whole limit; the standard lane only standardShare of it, so
+// list and search queries can never take the headroom mutations and single-product lookups need.
+// Nothing queues: an operation over its lane's share is rejected at once.
+class AdmissionController {
+
+    enum Lane { PRIORITY, STANDARD }
+
+    // Kinds come from the schema's root fields, so this is only reached by odd combinations of them
+    private static final int MAX_KINDS = 1000;
+    // Weight of each sample in its kind's baseline
+    private static final double BASELINE_WEIGHT = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final double standardShare;
+    private final Map<Lane, Counter> rejected = new EnumMap<>(Lane.class);
+    // Latency baseline in nanoseconds by kind of operation
+    private final Map<String, Double> baselines = new HashMap<>();
+    private double limit;
+    private int inFlight;
+
+    AdmissionController(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double latencyTolerance,
+                        double backoffRatio, double standardShare, MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.standardShare = standardShare;
+        for (Lane lane : Lane.values()) {
+            rejected.put(lane, Counter.builder("graphql.admission.rejected")
+                    .description("GraphQL operations rejected for lack of capacity")
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("graphql.admission.limit", this, AdmissionController::getLimit)
+                .description("Concurrent GraphQL operations currently allowed")
+                .register(meterRegistry);
+        Gauge.builder("graphql.admission.in-flight", this, AdmissionController::getInFlight)
+                .description("GraphQL operations currently executing")
+                .register(meterRegistry);
+    }
+
+    synchronized boolean tryAcquire(Lane lane) {
+        int capacity = lane == Lane.PRIORITY ? (int) limit : Math.max(1, (int) (limit * standardShare));
+        if (inFlight >= capacity) {
+            rejected.get(lane).increment();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    // kind is null for operations that should not move the limit
+    synchronized void release(String kind, long latencyNanos) {
+        if (kind != null) {
+            if (slow(kind, latencyNanos)) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+        inFlight--;
+    }
+
+    // Compares against the baseline before folding the sample in, so sustained slowness keeps
+    // backing off while the baseline slowly follows a lasting change in cost
+    private boolean slow(String kind, long latencyNanos) {
+        Double baseline = baselines.get(kind);
+        if (baseline == null) {
+            if (baselines.size() < MAX_KINDS) {
+                baselines.put(kind, (double) latencyNanos);
+            }
+            return false;
+        }
+        baselines.put(kind, baseline + (latencyNanos - baseline) * BASELINE_WEIGHT);
+        return latencyNanos > latencyThresholdNanos && latencyNanos > baseline * latencyTolerance;
+    }
+
+    synchronized double getLimit() {
+        return limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
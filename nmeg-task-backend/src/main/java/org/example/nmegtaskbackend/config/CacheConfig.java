@@ -0,0 +1,28 @@
+package org.example.nmegtaskbackend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Categories by id, including ids that do not exist
+    public static final String CATEGORIES = "categories";
+
+    // Caches are named up front so their hit/miss/eviction metrics are registered at startup.
+    // Puts and evictions are deferred until the surrounding transaction commits, so a write
+    // never invalidates the cache before the new rows are visible to other readers.
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CATEGORIES);
+        cacheManager.setCaffeine(Caffeine.from(spec).recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
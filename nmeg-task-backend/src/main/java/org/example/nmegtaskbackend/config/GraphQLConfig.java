@@ -1,19 +1,52 @@
 package org.example.nmegtaskbackend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import graphql.ErrorClassification;
 import graphql.GraphQLError;
 import graphql.GraphqlErrorBuilder;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
 import graphql.schema.DataFetchingEnvironment;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.nmegtaskbackend.controller.GraphQLGetHandler;
+import org.example.nmegtaskbackend.controller.QueryCost;
 import org.example.nmegtaskbackend.exception.ResourceNotFoundException;
 import org.example.nmegtaskbackend.exception.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.pagination.CursorEncoder;
+import org.springframework.graphql.data.pagination.CursorStrategy;
+import org.springframework.graphql.data.pagination.EncodingCursorStrategy;
+import org.springframework.graphql.data.query.JsonKeysetCursorStrategy;
+import org.springframework.graphql.data.query.ScrollPositionCursorStrategy;
 import org.springframework.graphql.execution.DataFetcherExceptionResolver;
 import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.SubscriptionExceptionResolver;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 public class GraphQLConfig {
@@ -59,4 +92,95 @@ public class GraphQLConfig {
             return error != null ? Mono.just(List.of(error)) : Mono.empty();
         };
     }
+
+    // Ends a subscription whose client fell behind (see CatalogEvents); anything else gets the
+    // default error
+    @Bean
+    public SubscriptionExceptionResolver subscriptionExceptionResolver() {
+        return SubscriptionExceptionResolver.forSingleError(ex -> Exceptions.isOverflow(ex)
+                ? GraphqlErrorBuilder.newError()
+                        .errorType(ErrorClassification.errorClassification("SLOW_CONSUMER"))
+                        .message("Subscriber fell too far behind and was disconnected; refetch and subscribe again")
+                        .build()
+                : null);
+    }
+
+    // Limits below are checked before any data fetcher runs; see QueryCost for how list
+    // fields are weighted
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(@Value("${app.graphql.limits.max-depth}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(@Value("${app.graphql.limits.max-complexity}") int maxComplexity,
+                                                                               @Value("${app.graphql.limits.products-per-category}") int productsPerCategory,
+                                                                               @Value("${app.graphql.limits.images-per-product}") int imagesPerProduct,
+                                                                               @Value("${app.graphql.limits.default-list-size}") int defaultListSize) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, new QueryCost(productsPerCategory, imagesPerProduct, defaultListSize));
+    }
+
+    @Bean
+    public ResponseSizeLimitInstrumentation responseSizeLimitInstrumentation(@Value("${app.graphql.limits.max-response-size}") DataSize maxResponseSize) {
+        return new ResponseSizeLimitInstrumentation(maxResponseSize.toBytes());
+    }
+
+    @Bean
+    public QueryOnlyInstrumentation queryOnlyInstrumentation() {
+        return new QueryOnlyInstrumentation();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.graphql.admission.enabled", havingValue = "true")
+    AdmissionController admissionController(@Value("${app.graphql.admission.initial-limit}") int initialLimit,
+                                            @Value("${app.graphql.admission.min-limit}") int minLimit,
+                                            @Value("${app.graphql.admission.max-limit}") int maxLimit,
+                                            @Value("${app.graphql.admission.latency-threshold}") Duration latencyThreshold,
+                                            @Value("${app.graphql.admission.latency-tolerance}") double latencyTolerance,
+                                            @Value("${app.graphql.admission.backoff-ratio}") double backoffRatio,
+                                            @Value("${app.graphql.admission.standard-share}") double standardShare,
+                                            MeterRegistry meterRegistry) {
+        return new AdmissionController(initialLimit, minLimit, maxLimit, latencyThreshold, latencyTolerance, backoffRatio, standardShare, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.graphql.admission.enabled", havingValue = "true")
+    public AdmissionControlInstrumentation admissionControlInstrumentation(AdmissionController admissionController,
+                                                                           @Value("${app.graphql.admission.priority-fields}") Set<String> priorityFields) {
+        return new AdmissionControlInstrumentation(admissionController, priorityFields);
+    }
+
+    // Ahead of Spring Boot's GraphQL routes, which answer GET with 405. Requests without query or
+    // extensions still fall through to them.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> graphQlGetRouterFunction(GraphQLGetHandler handler,
+                                                                   @Value("${spring.graphql.http.path:/graphql}") String path) {
+        return RouterFunctions.route()
+                .GET(path, RequestPredicates.param("query", query -> true).or(RequestPredicates.param("extensions", extensions -> true)),
+                        handler::handle)
+                .build();
+    }
+
+    // Keyset cursors carry typed values (e.g. Long ids), which the default
+    // JsonKeysetCursorStrategy refuses to deserialize
+    @Bean
+    public EncodingCursorStrategy<ScrollPosition> cursorStrategy() {
+        PolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfBaseType(Map.class)
+                .allowIfSubType(Number.class)
+                .allowIfSubType("java.time.")
+                .build();
+        ObjectMapper mapper = JsonMapper.builder()
+                .activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL)
+                .build();
+        
+        ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+        codecConfigurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+        codecConfigurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+        
+        return CursorStrategy.withEncoder(
+                new ScrollPositionCursorStrategy(new JsonKeysetCursorStrategy(codecConfigurer)),
+                CursorEncoder.base64());
+    }
 }
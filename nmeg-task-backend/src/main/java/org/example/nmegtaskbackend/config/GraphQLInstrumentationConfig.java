@@ -0,0 +1,100 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+
+// Per-operation GraphQL metrics (see GraphQLMetricsInstrumentation). Statements are counted by
+// wrapping the DataSource in a datasource-proxy whose query listener reports to the QueryStatistics
+// bound to the current thread, so statements outside GraphQL operations cost one thread-local
+// lookup. Counting rows means proxying every ResultSet and intercepting each JDBC method call, so
+// it is off unless row-counting is enabled, for diagnosis.
+@Configuration
+@ConditionalOnProperty(name = "app.graphql.instrumentation.enabled", havingValue = "true")
+public class GraphQLInstrumentationConfig {
+
+    // Operation names come from clients; past this many the meters are dropped
+    private static final int MAX_OPERATION_NAMES = 200;
+
+    @Bean
+    public static BeanPostProcessor queryStatisticsDataSourcePostProcessor(
+            @Value("${app.graphql.instrumentation.row-counting.enabled:false}") boolean rowCounting) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .afterQuery((execution, queries) -> {
+                            QueryStatistics statistics = QueryStatistics.current();
+                            if (statistics != null) {
+                                statistics.statementExecuted();
+                            }
+                        });
+                if (rowCounting) {
+                    builder.proxyResultSet().methodListener(new RowCountingListener());
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    @Bean
+    public GraphQLMetricsInstrumentation graphQLMetricsInstrumentation(MeterRegistry meterRegistry,
+                                                                       @Value("${app.graphql.tracing.enabled}") boolean tracingEnabled,
+                                                                       @Value("${app.graphql.instrumentation.row-counting.enabled:false}") boolean rowCounting) {
+        return new GraphQLMetricsInstrumentation(meterRegistry, tracingEnabled, rowCounting);
+    }
+
+    // Hands the operation name chosen during execution to GraphQLResponseSizeFilter
+    @Bean
+    public WebGraphQlInterceptor operationNameInterceptor() {
+        return (request, chain) -> chain.next(request).doOnNext(response -> GraphQLResponseSizeFilter.setOperation(
+                request.getAttributes(), response.getExecutionInput().getGraphQLContext().get(GraphQLMetricsInstrumentation.OPERATION_KEY)));
+    }
+
+    @Bean
+    public FilterRegistrationBean<GraphQLResponseSizeFilter> graphQLResponseSizeFilter(MeterRegistry meterRegistry,
+                                                                                       @Value("${spring.graphql.http.path:/graphql}") String path) {
+        FilterRegistrationBean<GraphQLResponseSizeFilter> registration = new FilterRegistrationBean<>(new GraphQLResponseSizeFilter(meterRegistry));
+        registration.addUrlPatterns(path);
+        return registration;
+    }
+
+    @Bean
+    public MeterFilter graphQLOperationCardinalityLimit() {
+        return MeterFilter.maximumAllowableTags("graphql.", "operation", MAX_OPERATION_NAMES, MeterFilter.deny());
+    }
+
+    private static class RowCountingListener implements MethodExecutionListener {
+
+        @Override
+        public void beforeMethod(MethodExecutionContext context) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext context) {
+            if (context.getTarget() instanceof ResultSet && Boolean.TRUE.equals(context.getResult())
+                    && "next".equals(context.getMethod().getName())) {
+                QueryStatistics statistics = QueryStatistics.current();
+                if (statistics != null) {
+                    statistics.rowFetched();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.nmegtaskbackend.config;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Records, tagged by operation name:
+//   graphql.field.duration            resolver latency per non-trivial field (Type.field)
+//   graphql.operation.sql.statements  JDBC statements executed by the operation
+//   graphql.operation.sql.rows        result set rows read by the operation, with row counting on
+// graphql.operation.response.size is recorded by GraphQLResponseSizeFilter. When tracing is
+// allowed and the request carries "extensions": {"tracing": true}, the response gets an
+// extensions.tracing block in the Apollo tracing format plus the operation's SQL counts.
+public class GraphQLMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    static final String OPERATION_KEY = GraphQLMetricsInstrumentation.class.getName() + ".operation";
+    static final String ANONYMOUS = "anonymous";
+
+    private final Meter.MeterProvider<Timer> fieldDuration;
+    private final Meter.MeterProvider<DistributionSummary> sqlStatements;
+    // Null unless row counting is on
+    private final Meter.MeterProvider<DistributionSummary> sqlRows;
+    private final boolean tracingAllowed;
+
+    public GraphQLMetricsInstrumentation(MeterRegistry meterRegistry, boolean tracingAllowed, boolean rowCounting) {
+        this.fieldDuration = Timer.builder("graphql.field.duration")
+                .description("Resolver latency of non-trivial GraphQL fields")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.sqlStatements = DistributionSummary.builder("graphql.operation.sql.statements")
+                .description("JDBC statements executed per GraphQL operation")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.sqlRows = !rowCounting ? null : DistributionSummary.builder("graphql.operation.sql.rows")
+                .description("Result set rows read per GraphQL operation")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.tracingAllowed = tracingAllowed;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        boolean tracing = tracingAllowed
+                && Boolean.TRUE.equals(parameters.getExecutionInput().getExtensions().get("tracing"));
+        return new OperationState(tracing);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        parameters.getGraphQLContext().put(QueryStatistics.KEY, ((OperationState) state).statistics);
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        String name = parameters.getExecutionContext().getOperationDefinition().getName();
+        OperationState operation = (OperationState) state;
+        operation.name = name != null ? name : ANONYMOUS;
+        parameters.getExecutionContext().getGraphQLContext().put(OPERATION_KEY, operation.name);
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    // Property fetchers are skipped; their cost is part of the parent field's completion
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        OperationState operation = (OperationState) state;
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((value, error) -> {
+            long duration = System.nanoTime() - start;
+            String field = stepInfo.getObjectType().getName() + "." + stepInfo.getFieldDefinition().getName();
+            fieldDuration.withTags("operation", operation.name, "field", field).record(duration, TimeUnit.NANOSECONDS);
+            if (operation.resolvers != null) {
+                Map<String, Object> resolver = new LinkedHashMap<>();
+                resolver.put("path", stepInfo.getPath().toList());
+                resolver.put("parentType", stepInfo.getObjectType().getName());
+                resolver.put("fieldName", stepInfo.getFieldDefinition().getName());
+                resolver.put("returnType", GraphQLTypeUtil.simplePrint(stepInfo.getFieldDefinition().getType()));
+                resolver.put("startOffset", start - operation.startNanos);
+                resolver.put("duration", duration);
+                operation.resolvers.add(resolver);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        OperationState operation = (OperationState) state;
+        long statements = operation.statistics.getStatements();
+        sqlStatements.withTags("operation", operation.name).record(statements);
+        Map<String, Object> sql = new LinkedHashMap<>();
+        sql.put("statements", statements);
+        if (sqlRows != null) {
+            long rows = operation.statistics.getRows();
+            sqlRows.withTags("operation", operation.name).record(rows);
+            sql.put("rows", rows);
+        }
+        if (operation.resolvers == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+
+        long duration = System.nanoTime() - operation.startNanos;
+        Map<String, Object> tracing = new LinkedHashMap<>();
+        tracing.put("version", 1);
+        tracing.put("startTime", operation.startTime.toString());
+        tracing.put("endTime", operation.startTime.plusNanos(duration).toString());
+        tracing.put("duration", duration);
+        tracing.put("execution", Map.of("resolvers", List.copyOf(operation.resolvers)));
+        tracing.put("sql", sql);
+        return CompletableFuture.completedFuture(executionResult.transform(result -> result.addExtension("tracing", tracing)));
+    }
+
+    private static class OperationState implements InstrumentationState {
+
+        private final QueryStatistics statistics = new QueryStatistics();
+        private final Instant startTime = Instant.now();
+        private final long startNanos = System.nanoTime();
+        // Null unless tracing was requested
+        private final Queue<Map<String, Object>> resolvers;
+        // Known once the document is parsed and the operation selected
+        private volatile String name = ANONYMOUS;
+
+        OperationState(boolean tracing) {
+            this.resolvers = tracing ? new ConcurrentLinkedQueue<>() : null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Records graphql.operation.response.size, the serialized (pre-compression) body size of each
+// GraphQL response. GraphQLInstrumentationConfig's interceptor fills in the operation name through
+// a holder left in a request attribute (the GraphQL request's attribute view is read-only). The
+// body may be written on an async dispatch, so bytes are counted on whichever dispatch finishes
+// the response.
+class GraphQLResponseSizeFilter extends OncePerRequestFilter {
+
+    static final String OPERATION_ATTRIBUTE = GraphQLResponseSizeFilter.class.getName() + ".operation";
+
+    private final Meter.MeterProvider<DistributionSummary> responseSize;
+
+    GraphQLResponseSizeFilter(MeterRegistry meterRegistry) {
+        this.responseSize = DistributionSummary.builder("graphql.operation.response.size")
+                .description("Serialized size of GraphQL responses")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicReference<String> operation = operation(request.getAttribute(OPERATION_ATTRIBUTE));
+        if (operation == null) {
+            operation = new AtomicReference<>();
+            request.setAttribute(OPERATION_ATTRIBUTE, operation);
+        }
+        CountingResponse counting = new CountingResponse(response);
+        filterChain.doFilter(request, counting);
+        if (!request.isAsyncStarted() && operation.get() != null) {
+            responseSize.withTags("operation", operation.get()).record(counting.bytes);
+        }
+    }
+
+    // Called with the GraphQL request's attributes once the operation has run
+    static void setOperation(Map<String, Object> attributes, String name) {
+        AtomicReference<String> operation = operation(attributes.get(OPERATION_ATTRIBUTE));
+        if (operation != null) {
+            operation.set(name);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReference<String> operation(Object attribute) {
+        return attribute instanceof AtomicReference<?> operation ? (AtomicReference<String>) operation : null;
+    }
+
+    // Jackson writes JSON through the output stream, so the writer is left alone
+    private static class CountingResponse extends HttpServletResponseWrapper {
+
+        private ServletOutputStream outputStream;
+        private long bytes;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.nmegtaskbackend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.graphql.execution.GraphQlSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Persisted queries (see PersistedQueryDocumentProvider). The manifest is generated from the
+// frontend's operations by nmeg-task-frontend/scripts/persisted-queries.mjs and loaded before the
+// server starts accepting requests.
+@Configuration
+public class PersistedQueryConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistedQueryConfig.class);
+
+    private static final List<String> MODES = List.of("automatic", "allowlist");
+
+    @Bean
+    PersistedQueryDocumentProvider persistedQueryDocumentProvider(@Value("${app.graphql.persisted-queries.mode}") String mode,
+                                                                  @Value("${app.graphql.persisted-queries.cache-size}") long cacheSize,
+                                                                  MeterRegistry meterRegistry) {
+        if (!MODES.contains(mode)) {
+            throw new IllegalArgumentException("app.graphql.persisted-queries.mode must be one of " + MODES + ", was " + mode);
+        }
+        PersistedQueryDocumentProvider provider = new PersistedQueryDocumentProvider(mode.equals("allowlist"), cacheSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, provider.getDocuments(), "graphql.documents");
+        return provider;
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueryDocumentProvider provider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(provider));
+    }
+
+    @Bean
+    public SmartInitializingSingleton persistedQueryManifestLoader(PersistedQueryDocumentProvider provider, GraphQlSource graphQlSource,
+                                                                  ObjectMapper objectMapper,
+                                                                  @Value("${app.graphql.persisted-queries.manifest}") Resource manifest) {
+        return () -> {
+            Map<String, String> operations = new LinkedHashMap<>();
+            try (InputStream input = manifest.getInputStream()) {
+                for (JsonNode operation : objectMapper.readTree(input).path("operations")) {
+                    operations.put(operation.path("id").asText(), operation.path("body").asText());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read persisted query manifest " + manifest, e);
+            }
+            provider.preload(graphQlSource.schema(), operations);
+            logger.info("Loaded {} persisted queries from {}", operations.size(), manifest);
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<PersistedQueryRequestFilter> persistedQueryRequestFilter(ObjectMapper objectMapper,
+                                                                                           @Value("${spring.graphql.http.path:/graphql}") String path) {
+        FilterRegistrationBean<PersistedQueryRequestFilter> registration = new FilterRegistrationBean<>(new PersistedQueryRequestFilter(objectMapper));
+        registration.addUrlPatterns(path);
+        return registration;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.nmegtaskbackend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.ParseAndValidate;
+import graphql.ParseAndValidateResult;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.schema.GraphQLSchema;
+import org.springframework.graphql.execution.ErrorType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Serves parsed and validated Documents from memory so repeated operations skip both steps.
+// Documents are keyed by the SHA-256 of their text: clients using Apollo's automatic persisted
+// queries send the hash in extensions.persistedQuery (and the text only after a
+// PersistedQueryNotFound), plain requests are hashed here. Manifest operations are pinned; the
+// rest share a bounded Caffeine cache, and only documents without errors are kept. In allowlist
+// mode nothing outside the manifest is executed.
+class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+
+    private final boolean allowlistOnly;
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private volatile Map<String, PreparsedDocumentEntry> manifest = Map.of();
+
+    PersistedQueryDocumentProvider(boolean allowlistOnly, long cacheSize) {
+        this.allowlistOnly = allowlistOnly;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(allowlistOnly ? 0 : cacheSize)
+                .recordStats()
+                .build();
+    }
+
+    Cache<String, PreparsedDocumentEntry> getDocuments() {
+        return documents;
+    }
+
+    // Operations by id; an id that is not the hash of its body or a body the schema rejects means
+    // the manifest is out of date, so startup fails
+    void preload(GraphQLSchema schema, Map<String, String> operations) {
+        Map<String, PreparsedDocumentEntry> entries = new HashMap<>();
+        operations.forEach((id, body) -> {
+            if (!id.equals(sha256(body))) {
+                throw new IllegalStateException("Persisted query " + id + " is not the SHA-256 of its body");
+            }
+            ParseAndValidateResult result = ParseAndValidate.parseAndValidate(schema, ExecutionInput.newExecutionInput(body).build());
+            if (result.isFailure()) {
+                throw new IllegalStateException("Persisted query " + id + " is invalid: " + result.getErrors());
+            }
+            entries.put(id, new PreparsedDocumentEntry(result.getDocument()));
+        });
+        manifest = Map.copyOf(entries);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                     Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidate));
+    }
+
+    private PreparsedDocumentEntry getDocument(ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String hash = persistedQueryHash(executionInput);
+        // PersistedQueryRequestFilter puts the marker in place of a missing query
+        String query = hash != null && PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(executionInput.getQuery())
+                ? null : executionInput.getQuery();
+        String id = hash != null ? hash : sha256(query);
+
+        PreparsedDocumentEntry entry = manifest.get(id);
+        if (entry != null) {
+            return entry;
+        }
+        if (allowlistOnly) {
+            return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message("Operation is not in the persisted query allowlist")
+                    .build());
+        }
+        entry = documents.getIfPresent(id);
+        if (entry != null) {
+            return entry;
+        }
+        if (query == null) {
+            return error("PersistedQueryNotFound", hash);
+        }
+        if (hash != null && !hash.equals(sha256(query))) {
+            return error("PersistedQueryIdInvalid", hash);
+        }
+        entry = parseAndValidate.apply(executionInput);
+        if (!entry.hasErrors()) {
+            documents.put(id, entry);
+        }
+        return entry;
+    }
+
+    // Same message and extensions as graphql-java's PersistedQuerySupport; Apollo retries with the
+    // query on PersistedQueryNotFound
+    private static PreparsedDocumentEntry error(String message, String hash) {
+        return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("classification", message, "persistedQueryId", hash))
+                .build());
+    }
+
+    private static String persistedQueryHash(ExecutionInput executionInput) {
+        return executionInput.getExtensions().get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash ? hash : null;
+    }
+
+    static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
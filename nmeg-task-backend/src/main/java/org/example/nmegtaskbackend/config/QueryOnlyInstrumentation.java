@@ -0,0 +1,28 @@
+package org.example.nmegtaskbackend.config;
+
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.OperationDefinition;
+
+// Refuses anything but a query when the GraphQLContext has KEY set, which GraphQLGetHandler
+// does: GET requests must be safe to repeat, cache and prefetch. The operation is only known
+// once the document is parsed, so this runs before execution rather than in the controller.
+public class QueryOnlyInstrumentation extends SimplePerformantInstrumentation {
+
+    public static final String KEY = QueryOnlyInstrumentation.class.getName();
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        OperationDefinition.Operation operation = parameters.getExecutionContext().getOperationDefinition().getOperation();
+        if (operation != OperationDefinition.Operation.QUERY
+                && parameters.getExecutionContext().getGraphQLContext().getBoolean(KEY, false)) {
+            throw new AbortExecutionException("Only queries can be sent with GET; use POST for " + operation.name().toLowerCase());
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+}
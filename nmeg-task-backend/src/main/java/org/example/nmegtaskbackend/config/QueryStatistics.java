@@ -0,0 +1,43 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.context.ContextRegistry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// JDBC work done on behalf of one GraphQL operation. The instrumentation stores it in the
+// GraphQLContext under KEY; Spring for GraphQL restores it as a thread local around every data
+// fetcher and batch loader, so statements issued from executor threads are counted as well.
+class QueryStatistics {
+
+    static final String KEY = QueryStatistics.class.getName();
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    // Null outside a GraphQL operation
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted() {
+        statements.increment();
+    }
+
+    void rowFetched() {
+        rows.increment();
+    }
+
+    long getStatements() {
+        return statements.sum();
+    }
+
+    long getRows() {
+        return rows.sum();
+    }
+}
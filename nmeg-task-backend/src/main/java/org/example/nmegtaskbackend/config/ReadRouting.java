@@ -0,0 +1,52 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.context.ContextRegistry;
+
+// Where the read-only transactions of one GraphQL operation may go. The interceptor in
+// ReplicaRoutingConfig stores it in the GraphQLContext under KEY; like QueryStatistics it is
+// restored as a thread local around every data fetcher and batch loader.
+class ReadRouting {
+
+    static final String KEY = ReadRouting.class.getName();
+
+    private static final ThreadLocal<ReadRouting> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private volatile boolean pinned;
+    private volatile boolean written;
+    private volatile boolean replicaRead;
+
+    ReadRouting(boolean pinned) {
+        this.pinned = pinned;
+    }
+
+    // Null outside a GraphQL operation
+    static ReadRouting current() {
+        return CURRENT.get();
+    }
+
+    // Later reads of the operation, such as the fields of a mutation's result, see the write
+    void writeCommitted() {
+        written = true;
+        pinned = true;
+    }
+
+    void replicaRead() {
+        replicaRead = true;
+    }
+
+    boolean isPinned() {
+        return pinned;
+    }
+
+    boolean hasWritten() {
+        return written;
+    }
+
+    boolean isReplicaRead() {
+        return replicaRead;
+    }
+}
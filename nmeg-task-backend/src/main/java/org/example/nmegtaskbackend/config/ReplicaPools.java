@@ -0,0 +1,191 @@
+package org.example.nmegtaskbackend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Connection pools for the read replicas, and the DataSource read-only transactions take their
+// connection from (see ReplicaRoutingConfig). A replica is only used while its last lag check
+// found it within max-lag; until the first check, or when it cannot be reached, reads go to the
+// primary. So do reads of a GraphQL operation whose ReadRouting is pinned, that is of a client
+// that wrote within sticky-window or of the operation that wrote. Reads served by a replica are
+// marked on the ReadRouting, so GraphQL GET responses built from them are not cached.
+class ReplicaPools {
+
+    static final String ROUND_ROBIN = "round-robin";
+    static final String LEAST_CONNECTIONS = "least-connections";
+    static final List<String> SELECTIONS = List.of(ROUND_ROBIN, LEAST_CONNECTIONS);
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPools.class);
+
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 5;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final boolean leastConnections;
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final MeterRegistry meterRegistry;
+
+    ReplicaPools(List<HikariConfig> configs, String selection, Duration maxLag, String lagQuery,
+                 MeterRegistry meterRegistry) {
+        if (!SELECTIONS.contains(selection)) {
+            throw new IllegalArgumentException("app.datasource.replicas.selection must be one of " + SELECTIONS + ", was " + selection);
+        }
+        this.leastConnections = selection.equals(LEAST_CONNECTIONS);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+        this.meterRegistry = meterRegistry;
+        for (HikariConfig config : configs) {
+            replicas.add(new Replica(config));
+        }
+    }
+
+    // Wraps the primary; what a read-only transaction gets when no replica may serve it
+    DataSource readOnlyDataSource(DataSource primary) {
+        Counter primaryReads = readCounter("primary");
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                ReadRouting routing = ReadRouting.current();
+                Replica replica = routing != null && routing.isPinned() ? null : select();
+                if (replica != null) {
+                    try {
+                        Connection connection = replica.pool.getConnection();
+                        replica.reads.increment();
+                        if (routing != null) {
+                            routing.replicaRead();
+                        }
+                        return connection;
+                    } catch (SQLException e) {
+                        replica.unavailable(e.getMessage());
+                    }
+                }
+                primaryReads.increment();
+                return primary.getConnection();
+            }
+
+            // Explicit credentials are for the primary; replica pools use the configured ones
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                primaryReads.increment();
+                return primary.getConnection(username, password);
+            }
+        };
+    }
+
+    // Called after a read-write transaction commits
+    void writeCommitted() {
+        ReadRouting routing = ReadRouting.current();
+        if (routing != null) {
+            routing.writeCommitted();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval:PT2S}")
+    void checkLag() {
+        for (Replica replica : replicas) {
+            try {
+                Double lag = replica.jdbcTemplate.queryForObject(lagQuery, Double.class);
+                replica.lagChecked(lag != null ? lag : 0);
+            } catch (DataAccessException e) {
+                replica.unavailable(e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private Replica select() {
+        List<Replica> usable = replicas.stream().filter(Replica::isUsable).toList();
+        if (usable.isEmpty()) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), usable.size());
+        if (!leastConnections) {
+            return usable.get(start);
+        }
+        // Ties go round-robin, so idle replicas share the load
+        Replica selected = null;
+        for (int i = 0; i < usable.size(); i++) {
+            Replica replica = usable.get((start + i) % usable.size());
+            if (selected == null || replica.activeConnections() < selected.activeConnections()) {
+                selected = replica;
+            }
+        }
+        return selected;
+    }
+
+    private Counter readCounter(String target) {
+        return Counter.builder("datasource.read-only.connections")
+                .description("Connections taken for read-only transactions")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private class Replica {
+
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbcTemplate;
+        private final Counter reads;
+        // Seconds behind the primary; NaN until checked or while unreachable
+        private volatile double lag = Double.NaN;
+
+        Replica(HikariConfig config) {
+            this.pool = new HikariDataSource(config);
+            this.jdbcTemplate = new JdbcTemplate(pool);
+            this.jdbcTemplate.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            this.reads = readCounter(config.getPoolName());
+            Gauge.builder("datasource.replica.lag", this, replica -> replica.lag)
+                    .description("Seconds the replica was behind the primary at the last check")
+                    .tag("target", config.getPoolName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        boolean isUsable() {
+            return lag <= maxLagSeconds;
+        }
+
+        int activeConnections() {
+            return pool.getHikariPoolMXBean().getActiveConnections();
+        }
+
+        void lagChecked(double seconds) {
+            boolean wasUsable = isUsable();
+            lag = seconds;
+            if (wasUsable && !isUsable()) {
+                logger.warn("Replica {} is {}s behind the primary; reading from the primary instead", pool.getPoolName(), seconds);
+            } else if (!wasUsable && isUsable()) {
+                logger.info("Replica {} is serving reads", pool.getPoolName());
+            }
+        }
+
+        void unavailable(String reason) {
+            if (isUsable()) {
+                logger.warn("Replica {} is unavailable, reading from the primary instead: {}", pool.getPoolName(), reason);
+            }
+            lag = Double.NaN;
+        }
+    }
+}
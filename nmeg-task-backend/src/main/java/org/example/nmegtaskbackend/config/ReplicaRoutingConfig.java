@@ -0,0 +1,142 @@
+package org.example.nmegtaskbackend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Sends read-only transactions to read replicas (see ReplicaPools). The primary DataSource is
+// wrapped in a LazyConnectionDataSourceProxy, which only takes a connection at the first
+// statement, once the transaction has marked it read-only, and then takes it from the replicas.
+// Read-your-writes: a GraphQL operation that commits a write answers with a cookie that keeps the
+// client's reads on the primary for sticky-window, even when its next request reaches another
+// instance. REST uploads and imports set no cookie. Other clients keep reading from the replicas,
+// so an operation that read from one is marked with REPLICA_READ in its GraphQLContext:
+// GraphQLGetHandler does not tag such a response with an ETag, since the replica may not yet have
+// the writes the CatalogVersion counts.
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    public static final String REPLICA_READ = ReplicaRoutingConfig.class.getName() + ".replicaRead";
+
+    static final String STICKY_COOKIE = "nmeg-read-primary-until";
+
+    @Bean
+    ReplicaPools replicaPools(@Value("${app.datasource.replicas.urls}") List<String> urls,
+                              @Value("${app.datasource.replicas.username}") String username,
+                              @Value("${app.datasource.replicas.password}") String password,
+                              @Value("${spring.datasource.driver-class-name}") String driverClassName,
+                              @Value("${app.datasource.replicas.maximum-pool-size}") int maximumPoolSize,
+                              @Value("${app.datasource.replicas.selection}") String selection,
+                              @Value("${app.datasource.replicas.max-lag}") Duration maxLag,
+                              @Value("${app.datasource.replicas.lag-query}") String lagQuery,
+                              MeterRegistry meterRegistry) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("app.datasource.replicas.urls must list at least one replica");
+        }
+        List<HikariConfig> configs = new ArrayList<>();
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (configs.size() + 1));
+            config.setJdbcUrl(url);
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(driverClassName);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setReadOnly(true);
+            // Start without a replica that is down; reads go to the primary until it is back
+            config.setInitializationFailTimeout(-1);
+            configs.add(config);
+        }
+        return new ReplicaPools(configs, selection, maxLag, lagQuery, meterRegistry);
+    }
+
+    // Ordered, so it runs before the unordered datasource-proxy in GraphQLInstrumentationConfig
+    // and statements on the replicas are counted as well
+    @Bean
+    public static BeanPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaPools> replicaPools) {
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource primary) || !beanName.equals("dataSource")) {
+                    return bean;
+                }
+                LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+                proxy.setReadOnlyDataSource(replicaPools.getObject().readOnlyDataSource(primary));
+                return proxy;
+            }
+        };
+    }
+
+    @Bean
+    public TransactionExecutionListener replicaWriteListener(ReplicaPools replicaPools) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure == null && transaction.isNewTransaction() && !transaction.isReadOnly()) {
+                    replicaPools.writeCommitted();
+                }
+            }
+        };
+    }
+
+    @Bean
+    public WebGraphQlInterceptor readYourWritesInterceptor(@Value("${app.datasource.replicas.sticky-window}") Duration stickyWindow) {
+        return (request, chain) -> {
+            HttpCookie cookie = request.getCookies().getFirst(STICKY_COOKIE);
+            ReadRouting routing = new ReadRouting(cookie != null && stickyUntil(cookie.getValue()) > System.currentTimeMillis());
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(ReadRouting.KEY, routing)).build());
+            return chain.next(request).doOnNext(response -> {
+                if (routing.isReplicaRead()) {
+                    response.getExecutionInput().getGraphQLContext().put(REPLICA_READ, true);
+                }
+                if (routing.hasWritten()) {
+                    // The value carries the deadline; Max-Age only has to outlast it
+                    ResponseCookie sticky = ResponseCookie.from(STICKY_COOKIE, Long.toString(System.currentTimeMillis() + stickyWindow.toMillis()))
+                            .maxAge(stickyWindow.toSeconds() + 1)
+                            .path("/")
+                            .httpOnly(true)
+                            .sameSite("Lax")
+                            .build();
+                    response.getResponseHeaders().add(HttpHeaders.SET_COOKIE, sticky.toString());
+                }
+            });
+        };
+    }
+
+    private static long stickyUntil(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+
+        @Override
+        default int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
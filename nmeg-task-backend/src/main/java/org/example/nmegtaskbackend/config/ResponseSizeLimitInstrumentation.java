@@ -0,0 +1,99 @@
+package org.example.nmegtaskbackend.config;
+
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import org.springframework.graphql.execution.ErrorType;
+
+import java.time.temporal.Temporal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stops an operation whose response would exceed maxBytes. Depth and complexity are checked
+// before execution; this catches what estimates miss, such as long descriptions. Every fetched
+// value adds an approximate JSON size to a running total, and once the total passes the limit
+// the remaining non-trivial data fetchers return null without touching the database and the
+// result is replaced by a single error.
+public class ResponseSizeLimitInstrumentation extends SimplePerformantInstrumentation {
+
+    // Quotes, colon and separator around each field name
+    private static final int FIELD_OVERHEAD = 4;
+
+    private final long maxBytes;
+
+    public ResponseSizeLimitInstrumentation(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new Budget();
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        Budget budget = (Budget) state;
+        int nameLength = parameters.getExecutionStepInfo().getResultKey().length();
+        return SimpleInstrumentationContext.whenCompleted((value, error) -> {
+            if (budget.bytes.addAndGet(FIELD_OVERHEAD + nameLength + size(value)) > maxBytes) {
+                budget.exceeded = true;
+            }
+        });
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return dataFetcher;
+        }
+        Budget budget = (Budget) state;
+        return environment -> budget.exceeded ? null : dataFetcher.get(environment);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        if (!((Budget) state).exceeded) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        return CompletableFuture.completedFuture(ExecutionResult.newExecutionResult()
+                .addError(GraphqlErrorBuilder.newError()
+                        .errorType(ErrorType.BAD_REQUEST)
+                        .message("Response exceeds the limit of " + maxBytes + " bytes; select fewer fields or request smaller pages")
+                        .build())
+                .build());
+    }
+
+    // Scalars count their text; objects and lists only their brackets, their fields count themselves
+    private static long size(Object value) {
+        if (value instanceof DataFetcherResult<?> result) {
+            value = result.getData();
+        }
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() + 2;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Enum<?>) {
+            return value.toString().length();
+        }
+        if (value instanceof Temporal) {
+            return value.toString().length() + 2;
+        }
+        return 2;
+    }
+
+    private static class Budget implements InstrumentationState {
+
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile boolean exceeded;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Semaphore;
+
+// With spring.threads.virtual.enabled, Tomcat serves each request on a virtual thread and the
+// application task executor starts a virtual thread per task. Spring for GraphQL then runs every
+// blocking controller method on that executor, so sibling fields such as Product.category and
+// Product.images are fetched concurrently. The decorator below caps how many of those tasks run
+// at once, keeping them below the Hikari pool size instead of queueing on it.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public TaskDecorator concurrencyLimitingTaskDecorator(@Value("${app.threads.virtual.max-concurrent-tasks}") int maxConcurrentTasks,
+                                                          MeterRegistry meterRegistry) {
+        Semaphore permits = new Semaphore(maxConcurrentTasks, true);
+        Gauge.builder("app.tasks.active", permits, semaphore -> maxConcurrentTasks - semaphore.availablePermits())
+                .description("Application tasks currently running")
+                .register(meterRegistry);
+        Gauge.builder("app.tasks.waiting", permits, Semaphore::getQueueLength)
+                .description("Application tasks waiting for a permit")
+                .register(meterRegistry);
+
+        // The permit is taken on the task's own thread, never by the submitter, so a task that
+        // submits more work while holding a permit cannot deadlock the executor
+        return task -> () -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.example.nmegtaskbackend.dto.CatalogChanges;
+import org.example.nmegtaskbackend.entity.CatalogChange;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.service.CatalogChangeService;
+import org.example.nmegtaskbackend.service.CategoryService;
+import org.example.nmegtaskbackend.service.ProductService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Controller
+public class CatalogChangeController {
+
+    static final int DEFAULT_CHANGES = 500;
+    static final int MAX_CHANGES = 1_000;
+
+    private final CatalogChangeService catalogChangeService;
+    private final CategoryService categoryService;
+    private final ProductService productService;
+
+    public CatalogChangeController(CatalogChangeService catalogChangeService, CategoryService categoryService, ProductService productService) {
+        this.catalogChangeService = catalogChangeService;
+        this.categoryService = categoryService;
+        this.productService = productService;
+    }
+
+    @QueryMapping
+    public CatalogChanges catalogChangesSince(@Argument Long version, @Argument Integer limit) {
+        int count = limit != null ? Math.min(Math.max(limit, 1), MAX_CHANGES) : DEFAULT_CHANGES;
+        return catalogChangeService.getChangesSince(version != null ? version : 0, count);
+    }
+
+    // Resolves CatalogChange.category for the whole page with a single query
+    @BatchMapping(typeName = "CatalogChange", field = "category")
+    public Map<CatalogChange, Category> category(List<CatalogChange> changes) {
+        Map<Long, Category> categoriesById = categoryService.getCategoriesByIds(liveIds(changes, CatalogChange.CATEGORY)).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        return resolve(changes, CatalogChange.CATEGORY, categoriesById);
+    }
+
+    // Resolves CatalogChange.product for the whole page with a single query
+    @BatchMapping(typeName = "CatalogChange", field = "product")
+    public Map<CatalogChange, Product> product(List<CatalogChange> changes) {
+        Map<Long, Product> productsById = productService.getProductsByIds(liveIds(changes, CatalogChange.PRODUCT)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return resolve(changes, CatalogChange.PRODUCT, productsById);
+    }
+
+    private static Collection<Long> liveIds(List<CatalogChange> changes, String entityType) {
+        return changes.stream()
+                .filter(change -> change.getEntityType().equals(entityType) && !change.getDeleted())
+                .map(CatalogChange::getEntityId)
+                .toList();
+    }
+
+    // Changes to the other entity type, tombstones and entities deleted since are left out (null)
+    private static <T> Map<CatalogChange, T> resolve(List<CatalogChange> changes, String entityType, Map<Long, T> entitiesById) {
+        Map<CatalogChange, T> result = new LinkedHashMap<>();
+        for (CatalogChange change : changes) {
+            if (change.getEntityType().equals(entityType) && entitiesById.containsKey(change.getEntityId())) {
+                result.put(change, entitiesById.get(change.getEntityId()));
+            }
+        }
+        return result;
+    }
+}
@@ -1,29 +1,52 @@
 package org.example.nmegtaskbackend.controller;
 
+import org.example.nmegtaskbackend.dto.CategoryChange;
 import org.example.nmegtaskbackend.dto.CategoryInput;
 import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.service.CatalogEvents;
 import org.example.nmegtaskbackend.service.CategoryService;
+import org.example.nmegtaskbackend.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Controller
 public class CategoryController {
+
+    static final int DEFAULT_CATEGORIES = 100;
+    static final int MAX_CATEGORIES = 1000;
     
     private final CategoryService categoryService;
+    private final ProductService productService;
+    private final CatalogEvents catalogEvents;
+    private final int productsPerCategory;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ProductService productService, CatalogEvents catalogEvents,
+                              @Value("${app.graphql.limits.products-per-category}") int productsPerCategory) {
         this.categoryService = categoryService;
+        this.productService = productService;
+        this.catalogEvents = catalogEvents;
+        this.productsPerCategory = productsPerCategory;
     }
 
     @QueryMapping
-    public List<Category> categories() {
-        return categoryService.getAllCategories();
+    public Window<Category> categories(ScrollSubrange subrange) {
+        return categoryService.getCategories(Pagination.position(subrange), Pagination.limit(subrange));
     }
     
     @QueryMapping
@@ -32,18 +55,18 @@ public class CategoryController {
     }
     
     @QueryMapping
-    public List<Category> activeCategories() {
-        return categoryService.getActiveCategories();
+    public List<Category> activeCategories(@Argument Integer limit) {
+        return first(categoryService.getActiveCategories(), limit);
     }
     
     @QueryMapping
-    public List<Category> categoriesValidAt(@Argument LocalDateTime dateTime) {
-        return categoryService.getCategoriesValidAt(dateTime);
+    public List<Category> categoriesValidAt(@Argument LocalDateTime dateTime, @Argument Integer limit) {
+        return first(categoryService.getCategoriesValidAt(dateTime), limit);
     }
     
     @QueryMapping
-    public List<Category> searchCategories(@Argument String name) {
-        return categoryService.searchCategoriesByName(name);
+    public Window<Category> searchCategories(@Argument String name, ScrollSubrange subrange) {
+        return categoryService.searchCategoriesByName(name, Pagination.position(subrange), Pagination.limit(subrange));
     }
     
     @MutationMapping
@@ -51,6 +74,11 @@ public class CategoryController {
         return categoryService.createCategory(input);
     }
     
+    @MutationMapping
+    public List<Category> bulkUpsertCategories(@Argument List<CategoryInput> inputs) {
+        return categoryService.bulkUpsertCategories(inputs);
+    }
+    
     @MutationMapping
     public Category updateCategory(@Argument Long id, @Argument CategoryInput input) {
         return categoryService.updateCategory(id, input);
@@ -60,4 +88,29 @@ public class CategoryController {
     public Boolean deleteCategory(@Argument Long id) {
         return categoryService.deleteCategory(id);
     }
+    
+    @SubscriptionMapping
+    public Flux<CategoryChange> categoryChanged() {
+        return catalogEvents.categoryChanges();
+    }
+    
+    // Resolves Category.products for every category in the response with a single query, capped
+    // per category; productsByCategory pages through the rest
+    @BatchMapping(typeName = "Category", field = "products")
+    public Map<Category, List<Product>> products(List<Category> categories) {
+        List<Long> categoryIds = categories.stream().map(Category::getId).toList();
+        Map<Long, List<Product>> productsByCategoryId = productService.getProductsByCategoryIds(categoryIds, productsPerCategory).stream()
+                .collect(Collectors.groupingBy(Product::getCategoryId));
+        
+        Map<Category, List<Product>> result = new LinkedHashMap<>();
+        for (Category category : categories) {
+            result.put(category, productsByCategoryId.getOrDefault(category.getId(), List.of()));
+        }
+        return result;
+    }
+
+    private static List<Category> first(List<Category> categories, Integer limit) {
+        int count = limit != null ? Math.min(Math.max(limit, 1), MAX_CATEGORIES) : DEFAULT_CATEGORIES;
+        return categories.size() > count ? categories.subList(0, count) : categories;
+    }
 }
@@ -0,0 +1,111 @@
+package org.example.nmegtaskbackend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import org.example.nmegtaskbackend.config.QueryOnlyInstrumentation;
+import org.example.nmegtaskbackend.config.ReplicaRoutingConfig;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.service.CatalogVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Runs queries sent with GET (the GraphQL over HTTP query string form, which Apollo's persisted
+// query link uses for hashed queries), so the browser or a reverse proxy can cache them. The ETag
+// comes from CatalogVersion and is taken before execution; a request whose If-None-Match still
+// matches gets a 304 without running anything. Responses with errors are not cached, nor are
+// responses read from a lagging-prone replica (see ReplicaRoutingConfig). Routed
+// ahead of Spring for GraphQL's handler, which only accepts POST (see GraphQLConfig).
+@Component
+public class GraphQLGetHandler {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private final WebGraphQlHandler webGraphQlHandler;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final String cacheControl;
+
+    public GraphQLGetHandler(WebGraphQlHandler webGraphQlHandler, CatalogVersion catalogVersion, ObjectMapper objectMapper,
+                             @Value("${app.graphql.http-cache.cache-control}") String cacheControl) {
+        this.webGraphQlHandler = webGraphQlHandler;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.cacheControl = cacheControl;
+    }
+
+    // query may be left out when extensions carries a persisted query hash
+    public ServerResponse handle(ServerRequest request) {
+        String etag = catalogVersion.etag();
+        Optional<ServerResponse> notModified = request.checkNotModified(etag);
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        try {
+            body.put("query", request.param("query").orElse(PersistedQuerySupport.PERSISTED_QUERY_MARKER));
+            body.put("operationName", request.param("operationName").orElse(null));
+            body.put("variables", parse(request, "variables"));
+            body.put("extensions", parse(request, "extensions"));
+        } catch (ValidationException ex) {
+            return ServerResponse.badRequest().body(ex.getMessage());
+        }
+
+        // Cookies are passed on for the read-your-writes routing in ReplicaRoutingConfig
+        MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
+        request.cookies().forEach((name, values) -> values.forEach(cookie -> cookies.add(name, new HttpCookie(name, cookie.getValue()))));
+        WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(request.uri(), request.headers().asHttpHeaders(),
+                cookies, request.remoteAddress().orElse(null), request.attributes(), body,
+                request.servletRequest().getRequestId(), request.servletRequest().getLocale());
+        graphQlRequest.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(QueryOnlyInstrumentation.KEY, true)).build());
+
+        return ServerResponse.async(webGraphQlHandler.handleRequest(graphQlRequest).map(response -> cacheable(response)
+                ? ServerResponse.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                        .contentType(MediaType.APPLICATION_JSON).body(write(response))
+                : ServerResponse.ok().header(HttpHeaders.CACHE_CONTROL, "no-store")
+                        .contentType(MediaType.APPLICATION_JSON).body(write(response))));
+    }
+
+    private Map<String, Object> parse(ServerRequest request, String name) {
+        Optional<String> json = request.param(name).filter(value -> !value.isBlank());
+        if (json.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json.get(), JSON_OBJECT);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Parameter '" + name + "' must be a JSON object");
+        }
+    }
+
+    private static boolean cacheable(WebGraphQlResponse response) {
+        return response.getErrors().isEmpty() && response.getExtensions().isEmpty()
+                && !response.getExecutionInput().getGraphQLContext().getBoolean(ReplicaRoutingConfig.REPLICA_READ, false);
+    }
+
+    private byte[] write(WebGraphQlResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response.toMap());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.query.ScrollSubrange;
+
+// Translates the Relay first/after arguments into keyset scroll parameters
+final class Pagination {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private Pagination() {}
+
+    static ScrollPosition position(ScrollSubrange subrange) {
+        return subrange.position().orElse(ScrollPosition.keyset());
+    }
+
+    static int limit(ScrollSubrange subrange) {
+        int count = subrange.count().orElse(DEFAULT_PAGE_SIZE);
+        return Math.min(Math.max(count, 1), MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.nmegtaskbackend.controller;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Maps the Product fields a query selects to the columns the list queries must read
+final class ProductColumns {
+
+    private ProductColumns() {}
+
+    // prefix is the path from the query field to the Product, e.g. "edges/node/"
+    static Set<String> selected(DataFetchingFieldSelectionSet selectionSet, String prefix) {
+        Set<String> columns = new HashSet<>();
+        if (selectionSet.contains(prefix + "name")) {
+            columns.add("name");
+        }
+        if (selectionSet.contains(prefix + "description")) {
+            columns.add("description");
+        }
+        // Product.category is batch-loaded by categoryId
+        if (selectionSet.containsAnyOf(prefix + "categoryId", prefix + "category")) {
+            columns.add("categoryId");
+        }
+        return columns;
+    }
+}
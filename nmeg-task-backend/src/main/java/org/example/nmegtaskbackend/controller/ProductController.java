@@ -1,32 +1,54 @@
 package org.example.nmegtaskbackend.controller;
 
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.example.nmegtaskbackend.dto.ProductChange;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
 import org.example.nmegtaskbackend.dto.ProductInput;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.example.nmegtaskbackend.entity.Category;
 import org.example.nmegtaskbackend.entity.Product;
-import org.example.nmegtaskbackend.entity.ProductImage;
+import org.example.nmegtaskbackend.service.CatalogEvents;
+import org.example.nmegtaskbackend.service.CategoryService;
+import org.example.nmegtaskbackend.service.ProductImageService;
 import org.example.nmegtaskbackend.service.ProductService;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
-import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Controller
 public class ProductController {
     
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+    
     private final ProductService productService;
+    private final CategoryService categoryService;
+    private final CatalogEvents catalogEvents;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CategoryService categoryService, CatalogEvents catalogEvents) {
         this.productService = productService;
+        this.categoryService = categoryService;
+        this.catalogEvents = catalogEvents;
     }
 
     @QueryMapping
-    public List<Product> products() {
-        return productService.getAllProducts();
+    public Window<Product> products(ScrollSubrange subrange, DataFetchingFieldSelectionSet selectionSet) {
+        return productService.getProducts(Pagination.position(subrange), Pagination.limit(subrange), columns(selectionSet));
     }
     
     @QueryMapping
@@ -35,18 +57,29 @@ public class ProductController {
     }
     
     @QueryMapping
-    public List<Product> productsByCategory(@Argument Long categoryId) {
-        return productService.getProductsByCategory(categoryId);
+    public Window<Product> productsByCategory(@Argument Long categoryId, ScrollSubrange subrange, DataFetchingFieldSelectionSet selectionSet) {
+        return productService.getProductsByCategory(categoryId, Pagination.position(subrange), Pagination.limit(subrange), columns(selectionSet));
+    }
+    
+    @QueryMapping
+    public Window<Product> searchProductsByName(@Argument String name, ScrollSubrange subrange, DataFetchingFieldSelectionSet selectionSet) {
+        return productService.searchProductsByName(name, Pagination.position(subrange), Pagination.limit(subrange), columns(selectionSet));
     }
     
     @QueryMapping
-    public List<Product> searchProductsByName(@Argument String name) {
-        return productService.searchProductsByName(name);
+    public Window<Product> searchProductsByCategoryAndName(@Argument Long categoryId, @Argument String name, ScrollSubrange subrange, DataFetchingFieldSelectionSet selectionSet) {
+        return productService.searchProductsByCategoryAndName(categoryId, name, Pagination.position(subrange), Pagination.limit(subrange), columns(selectionSet));
     }
     
     @QueryMapping
-    public List<Product> searchProductsByCategoryAndName(@Argument Long categoryId, @Argument String name) {
-        return productService.searchProductsByCategoryAndName(categoryId, name);
+    public Window<Product> searchProducts(@Argument String query, @Argument Long categoryId, ScrollSubrange subrange, DataFetchingFieldSelectionSet selectionSet) {
+        return productService.searchProducts(query, categoryId, Pagination.position(subrange), Pagination.limit(subrange), columns(selectionSet));
+    }
+    
+    @QueryMapping
+    public List<ProductSuggestion> suggestProducts(@Argument String prefix, @Argument Integer limit) {
+        int count = limit != null ? Math.min(Math.max(limit, 1), MAX_SUGGESTIONS) : DEFAULT_SUGGESTIONS;
+        return productService.suggestProducts(prefix, count);
     }
     
     @MutationMapping
@@ -54,6 +87,11 @@ public class ProductController {
         return productService.createProduct(input);
     }
     
+    @MutationMapping
+    public List<Product> bulkCreateProducts(@Argument List<ProductInput> inputs) {
+        return productService.bulkCreateProducts(inputs);
+    }
+    
     @MutationMapping
     public Product updateProduct(@Argument Long id, @Argument ProductInput input) {
         return productService.updateProduct(id, input);
@@ -64,14 +102,53 @@ public class ProductController {
         return productService.deleteProduct(id);
     }
     
-    @SchemaMapping(typeName = "Product", field = "images")
-    public List<String> images(Product product) {
-        if (product.getImages() == null || product.getImages().isEmpty()) {
-            return List.of();
+    @SubscriptionMapping
+    public Flux<ProductChange> productChanged(@Argument Long categoryId) {
+        Flux<ProductChange> changes = catalogEvents.productChanges();
+        return categoryId != null ? changes.filter(change -> change.concerns(categoryId)) : changes;
+    }
+    
+    // Resolves Product.category for every product in the response with a single query
+    @BatchMapping(typeName = "Product", field = "category")
+    public Map<Product, Category> category(List<Product> products) {
+        List<Long> categoryIds = products.stream().map(Product::getCategoryId).distinct().toList();
+        Map<Long, Category> categoriesById = categoryService.getCategoriesByIds(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        
+        Map<Product, Category> result = new LinkedHashMap<>();
+        for (Product product : products) {
+            result.put(product, categoriesById.get(product.getCategoryId()));
         }
+        return result;
+    }
+    
+    // Resolves Product.images for every product in the response with a single query.
+    // Only metadata is loaded; the bytes are served by ProductImageController
+    @BatchMapping(typeName = "Product", field = "images")
+    public Map<Product, List<ProductImageSummary>> images(List<Product> products) {
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        Map<Long, List<ProductImageSummary>> imagesByProductId = productService.getImagesByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ProductImageSummary::getProductId));
         
-        return product.getImages().stream()
-                .map(productImage -> Base64.getEncoder().encodeToString(productImage.getImage()))
-                .collect(Collectors.toList());
+        Map<Product, List<ProductImageSummary>> result = new LinkedHashMap<>();
+        for (Product product : products) {
+            result.put(product, imagesByProductId.getOrDefault(product.getId(), List.of()));
+        }
+        return result;
+    }
+    
+    // Connection queries read only the columns of the Product fields under edges.node
+    private static Set<String> columns(DataFetchingFieldSelectionSet selectionSet) {
+        return ProductColumns.selected(selectionSet, "edges/node/");
+    }
+    
+    @SchemaMapping(typeName = "ProductImage", field = "order")
+    public Integer order(ProductImageSummary image) {
+        return image.getImageOrder();
+    }
+    
+    @SchemaMapping(typeName = "ProductImage", field = "url")
+    public String url(ProductImageSummary image, @Argument Integer width, @Argument String format) {
+        return ProductImageService.url(image.getId(), width, format);
     }
 }
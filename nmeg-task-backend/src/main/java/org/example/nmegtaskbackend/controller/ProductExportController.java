@@ -0,0 +1,43 @@
+package org.example.nmegtaskbackend.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.service.ProductExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+// Full catalog dump. The body is written as the cursor advances; server.compression gzips it
+// on the fly for clients that accept it.
+@RestController
+@RequestMapping("/products/export")
+public class ProductExportController {
+
+    private final ProductExportService productExportService;
+
+    public ProductExportController(ProductExportService productExportService) {
+        this.productExportService = productExportService;
+    }
+
+    @GetMapping
+    public void export(@RequestParam(defaultValue = ProductExportService.NDJSON) String format,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(ProductExportService.contentType(format));
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("products." + format).build().toString());
+        productExportService.export(format, response.getOutputStream());
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<String> handleValidation(ValidationException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
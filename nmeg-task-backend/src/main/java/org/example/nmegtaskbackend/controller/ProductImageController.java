@@ -0,0 +1,152 @@
+package org.example.nmegtaskbackend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.nmegtaskbackend.dto.ImageVariant;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
+import org.example.nmegtaskbackend.dto.UploadedImage;
+import org.example.nmegtaskbackend.exception.ResourceNotFoundException;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.service.ImageVariantService;
+import org.example.nmegtaskbackend.service.ProductImageService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/images")
+public class ProductImageController {
+
+    // Image bytes are never modified in place, so responses can be cached indefinitely
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ProductImageService productImageService;
+    private final ImageVariantService imageVariantService;
+
+    public ProductImageController(ProductImageService productImageService, ImageVariantService imageVariantService) {
+        this.productImageService = productImageService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    // w and format select a resized variant, generated on first request and cached
+    @GetMapping("/{id}")
+    public void image(@PathVariable Long id,
+                      @RequestParam(name = "w", required = false) Integer width,
+                      @RequestParam(required = false) String format,
+                      ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        ProductImageSummary image = productImageService.getImage(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product image", id));
+        long lastModified = image.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        if (width != null || format != null) {
+            // Sources ImageIO cannot decode are served as uploaded
+            Optional<String> variantKey = imageVariantService.variantKey(image, width, format);
+            if (variantKey.isPresent()) {
+                // Revalidated before the variant is loaded or generated
+                if (webRequest.checkNotModified("\"" + variantKey.get() + "\"", lastModified)) {
+                    return;
+                }
+                Optional<ImageVariant> variant = imageVariantService.getVariant(image, width, format);
+                if (variant.isPresent()) {
+                    writeVariant(variant.get(), response);
+                    return;
+                }
+            }
+        }
+
+        // Migrated images are content-addressed, so the storage key is a natural strong validator
+        String etag = "\"" + (image.getStorageKey() != null ? image.getStorageKey() : image.getId() + "-" + image.getSize()) + "\"";
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(image.getContentType());
+
+        long size = image.getSize();
+        long start = 0;
+        long end = size - 1;
+
+        String rangeHeader = webRequest.getHeader(HttpHeaders.RANGE);
+        String ifRange = webRequest.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Multipart byte ranges are not worth supporting for images; serve the whole body instead
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+
+        response.setContentLengthLong(end - start + 1);
+        
+        // Let Tomcat send local files with sendfile(2) instead of copying them through the heap
+        Optional<Path> localPath = productImageService.localPath(image);
+        HttpServletRequest request = webRequest.getRequest();
+        if (localPath.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, localPath.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        productImageService.writeContent(image, start, end - start + 1, response.getOutputStream());
+    }
+
+    // Variants are small and held in memory, so they are written whole without range support
+    private void writeVariant(ImageVariant variant, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+        response.setContentType(variant.getContentType());
+        response.setContentLength(variant.getSize());
+        response.getOutputStream().write(variant.getData());
+    }
+
+    // Upload images ahead of createProduct/updateProduct, which reference them through imageIds
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<UploadedImage> upload(@RequestParam("files") List<MultipartFile> files) {
+        return productImageService.upload(files);
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<String> handleValidation(ValidationException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+}
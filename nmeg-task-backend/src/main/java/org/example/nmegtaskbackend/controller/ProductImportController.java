@@ -0,0 +1,39 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.example.nmegtaskbackend.dto.ImportResult;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.service.ProductImportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+// Large product loads, streamed from the request body rather than buffered as a GraphQL argument
+@RestController
+@RequestMapping("/products/import")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    @PostMapping(consumes = "text/csv")
+    public ImportResult importCsv(InputStream body) {
+        return productImportService.importCsv(body);
+    }
+
+    @PostMapping(consumes = "application/x-ndjson")
+    public ImportResult importNdjson(InputStream body) {
+        return productImportService.importNdjson(body);
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<String> handleValidation(ValidationException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.nmegtaskbackend.controller;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.List;
+import java.util.Map;
+
+// Query complexity as an estimate of the rows a query reads. Every field costs 1 and a list
+// field multiplies the cost of its selection by the number of elements it is expected to
+// return: connection edges use the connection's first argument (clamped like Pagination),
+// suggestProducts, activeCategories, categoriesValidAt and catalogChangesSince their limit, bulk
+// mutations the number of inputs, and the capped Category.products and Product.images lists the
+// configured sizes. Introspection is free.
+public class QueryCost implements FieldComplexityCalculator {
+
+    // Keeps sums of up to 256 saturated sibling fields inside an int
+    private static final long SATURATED = Integer.MAX_VALUE / 256;
+
+    private final Map<String, Integer> listSizes;
+    private final int defaultListSize;
+
+    public QueryCost(int productsPerCategory, int imagesPerProduct, int defaultListSize) {
+        this.listSizes = Map.of("Category.products", productsPerCategory, "Product.images", imagesPerProduct);
+        this.defaultListSize = defaultListSize;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        if (environment.getFieldDefinition().getName().startsWith("__") || environment.getParentType().getName().startsWith("__")) {
+            return 0;
+        }
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType());
+        long cost = GraphQLTypeUtil.isList(type)
+                ? 1 + (long) cardinality(environment) * Math.max(childComplexity, 1)
+                : 1 + (long) childComplexity;
+        return (int) Math.min(cost, SATURATED);
+    }
+
+    private int cardinality(FieldComplexityEnvironment environment) {
+        String name = environment.getFieldDefinition().getName();
+        Map<String, Object> arguments = environment.getArguments();
+        if (name.equals("edges") && environment.getParentEnvironment() != null) {
+            Object first = environment.getParentEnvironment().getArguments().get("first");
+            return first instanceof Integer count ? Math.min(Math.max(count, 1), Pagination.MAX_PAGE_SIZE) : Pagination.DEFAULT_PAGE_SIZE;
+        }
+        if (name.equals("suggestProducts")) {
+            Object limit = arguments.get("limit");
+            return limit instanceof Integer count ? Math.min(Math.max(count, 1), ProductController.MAX_SUGGESTIONS) : ProductController.DEFAULT_SUGGESTIONS;
+        }
+        if (name.equals("activeCategories") || name.equals("categoriesValidAt")) {
+            Object limit = arguments.get("limit");
+            return limit instanceof Integer count ? Math.min(Math.max(count, 1), CategoryController.MAX_CATEGORIES) : CategoryController.DEFAULT_CATEGORIES;
+        }
+        if (name.equals("changes") && environment.getParentEnvironment() != null) {
+            Object limit = environment.getParentEnvironment().getArguments().get("limit");
+            return limit instanceof Integer count ? Math.min(Math.max(count, 1), CatalogChangeController.MAX_CHANGES) : CatalogChangeController.DEFAULT_CHANGES;
+        }
+        if (arguments.get("inputs") instanceof List<?> inputs) {
+            return inputs.size();
+        }
+        return listSizes.getOrDefault(environment.getParentType().getName() + "." + name, defaultListSize);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.nmegtaskbackend.dto;
+
+import org.example.nmegtaskbackend.entity.CatalogChange;
+
+import java.util.List;
+
+// One page of catalogChangesSince; version is where the next call resumes
+public class CatalogChanges {
+
+    private final List<CatalogChange> changes;
+    private final Long version;
+    private final boolean hasMore;
+
+    public CatalogChanges(List<CatalogChange> changes, Long version, boolean hasMore) {
+        this.changes = changes;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+
+    public List<CatalogChange> getChanges() {
+        return changes;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
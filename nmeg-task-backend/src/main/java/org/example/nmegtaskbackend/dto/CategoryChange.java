@@ -0,0 +1,41 @@
+package org.example.nmegtaskbackend.dto;
+
+import org.example.nmegtaskbackend.entity.Category;
+
+// A committed category write, delivered to categoryChanged subscribers; category is null once deleted
+public class CategoryChange {
+
+    private final ChangeType type;
+    private final Long id;
+    private final Category category;
+
+    private CategoryChange(ChangeType type, Long id, Category category) {
+        this.type = type;
+        this.id = id;
+        this.category = category;
+    }
+
+    public static CategoryChange created(Category category) {
+        return new CategoryChange(ChangeType.CREATED, category.getId(), category);
+    }
+
+    public static CategoryChange updated(Category category) {
+        return new CategoryChange(ChangeType.UPDATED, category.getId(), category);
+    }
+
+    public static CategoryChange deleted(Long id) {
+        return new CategoryChange(ChangeType.DELETED, id, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+}
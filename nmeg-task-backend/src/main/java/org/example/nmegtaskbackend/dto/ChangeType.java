@@ -0,0 +1,7 @@
+package org.example.nmegtaskbackend.dto;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,29 @@
+package org.example.nmegtaskbackend.dto;
+
+import org.springframework.core.io.InputStreamSource;
+
+// Image bytes that can be (re)opened as a stream, together with their known length
+public class ImageContent {
+
+    private final InputStreamSource source;
+    private final long size;
+    private final String contentType;
+
+    public ImageContent(InputStreamSource source, long size, String contentType) {
+        this.source = source;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public InputStreamSource getSource() {
+        return source;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.nmegtaskbackend.dto;
+
+// A resized and re-encoded rendition of a product image; key identifies it in the variant caches
+public class ImageVariant {
+
+    private final String key;
+    private final String contentType;
+    private final byte[] data;
+
+    public ImageVariant(String key, String contentType, byte[] data) {
+        this.key = key;
+        this.contentType = contentType;
+        this.data = data;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getSize() {
+        return data.length;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.nmegtaskbackend.dto;
+
+// A rejected import row; row is the 1-based record number, not counting the CSV header
+public class ImportError {
+
+    private final long row;
+    private final String message;
+
+    public ImportError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.nmegtaskbackend.dto;
+
+import java.util.List;
+
+// Outcome of a product import. errors holds the first rejected rows; failed counts all of them
+public class ImportResult {
+
+    private final long imported;
+    private final long failed;
+    private final List<ImportError> errors;
+
+    public ImportResult(long imported, long failed, List<ImportError> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.nmegtaskbackend.dto;
+
+import org.example.nmegtaskbackend.entity.Product;
+
+// A committed product write, delivered to productChanged subscribers. product is the state as
+// written (null once deleted); categoryId is kept for deletes so subscribers can still filter, and
+// previousCategoryId is set on updates that moved the product, so the old category hears of it too.
+public class ProductChange {
+
+    private final ChangeType type;
+    private final Long id;
+    private final Long categoryId;
+    private final Long previousCategoryId;
+    private final Product product;
+
+    private ProductChange(ChangeType type, Long id, Long categoryId, Long previousCategoryId, Product product) {
+        this.type = type;
+        this.id = id;
+        this.categoryId = categoryId;
+        this.previousCategoryId = previousCategoryId;
+        this.product = product;
+    }
+
+    public static ProductChange created(Product product) {
+        return new ProductChange(ChangeType.CREATED, product.getId(), product.getCategoryId(), null, product);
+    }
+
+    public static ProductChange updated(Product product, Long previousCategoryId) {
+        Long movedFrom = product.getCategoryId().equals(previousCategoryId) ? null : previousCategoryId;
+        return new ProductChange(ChangeType.UPDATED, product.getId(), product.getCategoryId(), movedFrom, product);
+    }
+
+    public static ProductChange deleted(Long id, Long categoryId) {
+        return new ProductChange(ChangeType.DELETED, id, categoryId, null, null);
+    }
+
+    // Whether subscribers filtering by the category should see the change
+    public boolean concerns(Long categoryId) {
+        return categoryId.equals(this.categoryId) || categoryId.equals(previousCategoryId);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public Long getPreviousCategoryId() {
+        return previousCategoryId;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+}
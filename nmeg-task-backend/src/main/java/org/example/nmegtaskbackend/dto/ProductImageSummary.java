@@ -0,0 +1,21 @@
+package org.example.nmegtaskbackend.dto;
+
+import java.time.LocalDateTime;
+
+// Closed projection of product_image that never selects the image bytes
+public interface ProductImageSummary {
+
+    Long getId();
+
+    Long getProductId();
+
+    Integer getImageOrder();
+
+    String getContentType();
+
+    Long getSize();
+
+    String getStorageKey();
+
+    LocalDateTime getCreatedAt();
+}
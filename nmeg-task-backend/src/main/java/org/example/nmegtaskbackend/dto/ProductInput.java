@@ -8,6 +8,7 @@ public class ProductInput {
     private String description;
     private Long categoryId;
     private List<String> images;
+    private List<Long> imageIds;
     
     public ProductInput() {}
 
@@ -38,6 +39,14 @@ public class ProductInput {
         this.images = images;
     }
 
+    public List<Long> getImageIds() {
+        return imageIds;
+    }
+
+    public void setImageIds(List<Long> imageIds) {
+        this.imageIds = imageIds;
+    }
+
     public void setDescription(String description) {
         this.description = description;
     }
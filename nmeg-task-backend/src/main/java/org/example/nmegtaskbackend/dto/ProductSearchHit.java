@@ -0,0 +1,21 @@
+package org.example.nmegtaskbackend.dto;
+
+// A product matched by searchProducts and its relevance; higher ranks sort first
+public class ProductSearchHit {
+
+    private final Long id;
+    private final float rank;
+
+    public ProductSearchHit(Long id, float rank) {
+        this.id = id;
+        this.rank = rank;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+}
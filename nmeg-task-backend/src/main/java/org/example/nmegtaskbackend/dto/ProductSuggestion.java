@@ -0,0 +1,33 @@
+package org.example.nmegtaskbackend.dto;
+
+// Typeahead result served from the in-memory index, without loading the product
+public class ProductSuggestion {
+
+    private final Long id;
+    private final String name;
+    private final Long categoryId;
+    private final String categoryName;
+
+    public ProductSuggestion(Long id, String name, Long categoryId, String categoryName) {
+        this.id = id;
+        this.name = name;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+}
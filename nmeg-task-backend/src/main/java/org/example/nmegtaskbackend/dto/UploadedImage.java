@@ -0,0 +1,33 @@
+package org.example.nmegtaskbackend.dto;
+
+// Handle returned by the upload endpoint; the id is passed back in ProductInput.imageIds
+public class UploadedImage {
+
+    private final Long id;
+    private final String contentType;
+    private final long size;
+    private final String url;
+
+    public UploadedImage(Long id, String contentType, long size, String url) {
+        this.id = id;
+        this.contentType = contentType;
+        this.size = size;
+        this.url = url;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.nmegtaskbackend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Latest change to one category or product (see V9). Mapped so the schema is validated; rows are
+// written and read over JDBC by CatalogChangeRepository.
+@Entity
+@Table(name = "catalog_change",
+        uniqueConstraints = @UniqueConstraint(name = "uk_catalog_change_entity", columnNames = {"entity_type", "entity_id"}))
+public class CatalogChange {
+
+    public static final String CATEGORY = "CATEGORY";
+    public static final String PRODUCT = "PRODUCT";
+
+    @Id
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted", nullable = false)
+    private Boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public CatalogChange() {}
+
+    public CatalogChange(Long version, String entityType, Long entityId, Boolean deleted, LocalDateTime changedAt) {
+        this.version = version;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deleted = deleted;
+        this.changedAt = changedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.nmegtaskbackend.entity;
+
+import jakarta.persistence.*;
+
+// Single row holding the last catalog_change version handed out (see V9). Mapped so the schema
+// is validated; only CatalogChangeRepository reads and writes it.
+@Entity
+@Table(name = "catalog_change_counter")
+public class CatalogChangeCounter {
+
+    @Id
+    @Column(name = "id")
+    private Short id;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public CatalogChangeCounter() {}
+
+    public Short getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
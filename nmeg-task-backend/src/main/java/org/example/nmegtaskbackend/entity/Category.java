@@ -8,8 +8,12 @@ import java.util.List;
 @Table(name = "category")
 public class Category {
     
+    // Ids come from the sequence in blocks, so inserts can be batched (see V8)
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_id")
+    @SequenceGenerator(name = "category_id", sequenceName = "category_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "name", nullable = false)
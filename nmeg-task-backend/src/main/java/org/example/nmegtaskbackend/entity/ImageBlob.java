@@ -0,0 +1,60 @@
+package org.example.nmegtaskbackend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Blob row of the PostgreSQL image store. Mapped so the schema is validated, but the
+// data column is only ever read and written over JDBC by PostgresImageStore.
+@Entity
+@Table(name = "image_blob")
+public class ImageBlob {
+
+    @Id
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "data", nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
+    public ImageBlob() {}
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
@@ -9,8 +9,12 @@ import java.util.List;
 @Table(name = "product")
 public class Product {
     
+    // Ids come from the sequence in blocks, so inserts can be batched (see V8)
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id")
+    @SequenceGenerator(name = "product_id", sequenceName = "product_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "name", nullable = false)
@@ -1,6 +1,9 @@
 package org.example.nmegtaskbackend.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "product_image")
@@ -10,25 +13,39 @@ public class ProductImage {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "image", nullable = false, columnDefinition = "bytea")
-    private byte[] image;
+    // Key of the bytes in the ImageStore; null only for legacy rows not yet migrated out of product_image.image
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
 
-    @Column(name = "product_id", nullable = false)
+    // Null while an upload has not yet been attached to a product
+    @Column(name = "product_id")
     private Long productId;
 
     @Column(name = "image_order", nullable = false)
     private Integer imageOrder = 0;
 
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", insertable = false, updatable = false)
     private Product product;
 
     public ProductImage() {}
 
-    public ProductImage(byte[] image, Long productId, Integer imageOrder) {
-        this.image = image;
+    public ProductImage(String storageKey, Long productId, Integer imageOrder, String contentType, Long size) {
+        this.storageKey = storageKey;
         this.productId = productId;
         this.imageOrder = imageOrder;
+        this.contentType = contentType;
+        this.size = size;
     }
 
     public Long getId() {
@@ -39,12 +56,12 @@ public class ProductImage {
         this.id = id;
     }
 
-    public byte[] getImage() {
-        return image;
+    public String getStorageKey() {
+        return storageKey;
     }
 
-    public void setImage(byte[] image) {
-        this.image = image;
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
     }
 
     public Long getProductId() {
@@ -63,6 +80,30 @@ public class ProductImage {
         this.imageOrder = imageOrder;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public Product getProduct() {
         return product;
     }
@@ -0,0 +1,72 @@
+package org.example.nmegtaskbackend.repository;
+
+import org.example.nmegtaskbackend.entity.CatalogChange;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// The catalog change log over JDBC, so writes can be batched alongside bulk inserts. Writes must
+// run in the writing transaction: allocating versions locks the counter row until commit, which
+// keeps versions in commit order (a reader never sees version n + 1 before version n). Since that
+// serializes writers, CatalogChangeService only writes once the transaction is about to commit.
+@Repository
+public class CatalogChangeRepository {
+
+    private static final String ALLOCATE_SQL = "UPDATE catalog_change_counter SET version = version + ? WHERE id = 1";
+    private static final String DELETE_SQL = "DELETE FROM catalog_change WHERE entity_type = ? AND entity_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO catalog_change (version, entity_type, entity_id, deleted, changed_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT version, entity_type, entity_id, deleted, changed_at FROM catalog_change WHERE version > ? ORDER BY version LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Logs entities that have no earlier change
+    public void insert(String entityType, List<Long> entityIds) {
+        write(entityType, entityIds, false, false);
+    }
+
+    // Logs a change to each entity, replacing its earlier one
+    public void replace(String entityType, List<Long> entityIds, boolean deleted) {
+        write(entityType, entityIds, deleted, true);
+    }
+
+    public List<CatalogChange> findSince(long version, int limit) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, row) -> new CatalogChange(rs.getLong(1), rs.getString(2), rs.getLong(3),
+                rs.getBoolean(4), rs.getTimestamp(5).toLocalDateTime()), version, limit);
+    }
+
+    private void write(String entityType, List<Long> entityIds, boolean deleted, boolean replace) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        long first = allocate(entityIds.size());
+        if (replace) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, entityIds, entityIds.size(), (ps, entityId) -> {
+                ps.setString(1, entityType);
+                ps.setLong(2, entityId);
+            });
+        }
+        Timestamp changedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entityIds.size());
+        for (int i = 0; i < entityIds.size(); i++) {
+            rows.add(new Object[]{first + i, entityType, entityIds.get(i), deleted, changedAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    // Reserves count versions and returns the first
+    private long allocate(int count) {
+        if (jdbcTemplate.update(ALLOCATE_SQL, count) == 0) {
+            // V9 inserts the row; schemas generated by Hibernate start without it
+            jdbcTemplate.update("INSERT INTO catalog_change_counter (id, version) VALUES (1, ?)", count);
+        }
+        return jdbcTemplate.queryForObject("SELECT version FROM catalog_change_counter WHERE id = 1", Long.class) - count + 1;
+    }
+}
@@ -1,12 +1,16 @@
 package org.example.nmegtaskbackend.repository;
 
 import org.example.nmegtaskbackend.entity.Category;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,10 +27,19 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c FROM Category c WHERE c.validFrom <= :dateTime AND (c.validTo IS NULL OR c.validTo > :dateTime)")
     List<Category> findCategoriesValidAt(@Param("dateTime") LocalDateTime dateTime);
     
-    List<Category> findByNameContainingIgnoreCase(String namePattern);
+    // Keyset-paginated queries, ordered by id so the cursor is stable
+    Window<Category> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+
+    Window<Category> findByNameContainingIgnoreCaseOrderByIdAsc(String namePattern, ScrollPosition position, Limit limit);
 
     // Check if category name exists (excluding current category for updates)
     boolean existsByNameAndIdNot(String name, Long id);
     
     boolean existsByName(String name);
+
+    // Batch lookup used by the Product.category DataLoader
+    List<Category> findByIdIn(Collection<Long> ids);
+
+    // Batch lookup used by bulkUpsertCategories
+    List<Category> findByNameIn(Collection<String> names);
 }
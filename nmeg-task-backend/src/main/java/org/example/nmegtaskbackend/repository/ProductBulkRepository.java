@@ -0,0 +1,92 @@
+package org.example.nmegtaskbackend.repository;
+
+import org.example.nmegtaskbackend.entity.Product;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk product inserts for the streaming import. Ids are reserved from product_id_seq in the
+// same blocks Hibernate uses, then rows go in through COPY on PostgreSQL or JDBC batches
+// elsewhere. Must run in a transaction.
+@Repository
+public class ProductBulkRepository {
+
+    private static final String COPY_SQL = "COPY product (id, name, description, category_id) FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_SQL = "INSERT INTO product (id, name, description, category_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Assigns fresh ids to the products. Each nextval owns [value, value + ID_ALLOCATION_SIZE),
+    // matching Hibernate's pooled-lo optimizer, so the two never hand out the same id.
+    public void assignIds(List<Product> products) {
+        int blocks = (products.size() + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+        List<Long> blockStarts = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class))
+                ? jdbcTemplate.queryForList("SELECT nextval('product_id_seq') FROM generate_series(1, ?)", Long.class, blocks)
+                : reserveBlocksOneByOne(blocks);
+        for (int i = 0; i < products.size(); i++) {
+            long blockStart = blockStarts.get(i / Product.ID_ALLOCATION_SIZE);
+            products.get(i).setId(blockStart + i % Product.ID_ALLOCATION_SIZE);
+        }
+    }
+
+    // Inserts products that already carry ids
+    public void insert(List<Product> products) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                try {
+                    copyManager.copyIn(COPY_SQL, new StringReader(toCsv(products)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (ps, product) -> {
+                    ps.setLong(1, product.getId());
+                    ps.setString(2, product.getName());
+                    ps.setString(3, product.getDescription());
+                    ps.setLong(4, product.getCategoryId());
+                });
+            }
+            return null;
+        });
+    }
+
+    private List<Long> reserveBlocksOneByOne(int blocks) {
+        List<Long> blockStarts = new ArrayList<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            blockStarts.add(jdbcTemplate.queryForObject("SELECT nextval('product_id_seq')", Long.class));
+        }
+        return blockStarts;
+    }
+
+    private static String toCsv(List<Product> products) {
+        StringBuilder csv = new StringBuilder(products.size() * 64);
+        for (Product product : products) {
+            csv.append(product.getId()).append(',');
+            appendQuoted(csv, product.getName());
+            csv.append(',');
+            // An unquoted empty field is NULL in COPY csv format
+            if (product.getDescription() != null) {
+                appendQuoted(csv, product.getDescription());
+            }
+            csv.append(',').append(product.getCategoryId()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static void appendQuoted(StringBuilder csv, String value) {
+        csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.nmegtaskbackend.repository;
+
+import org.example.nmegtaskbackend.entity.ProductImage;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+// product_image statements that need JDBC batching or must never pull bytes through Hibernate
+@Repository
+public class ProductImageContentRepository {
+
+    // Upper bound on the bytes the driver buffers for a single read
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductImageContentRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts the image rows in one JDBC batch and assigns the generated ids to them.
+    // A null productId leaves an image unattached until a product claims it.
+    public void insertAll(List<ProductImage> images) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(
+                        "INSERT INTO product_image (storage_key, product_id, image_order, content_type, size, created_at) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)",
+                        new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductImage image = images.get(i);
+                        ps.setString(1, image.getStorageKey());
+                        if (image.getProductId() != null) {
+                            ps.setLong(2, image.getProductId());
+                        } else {
+                            ps.setNull(2, Types.BIGINT);
+                        }
+                        ps.setInt(3, image.getImageOrder());
+                        ps.setString(4, image.getContentType());
+                        ps.setLong(5, image.getSize());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return images.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < images.size(); i++) {
+            images.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
+
+    // Assigns images to a product at the given positions, or moves the product's own images.
+    // Returns false if any image is missing or already belongs to a different product.
+    public boolean attachAll(Long productId, Map<Long, Integer> ordersById) {
+        List<Map.Entry<Long, Integer>> orders = List.copyOf(ordersById.entrySet());
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE product_image SET product_id = ?, image_order = ? WHERE id = ? AND (product_id IS NULL OR product_id = ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, productId);
+                        ps.setInt(2, orders.get(i).getValue());
+                        ps.setLong(3, orders.get(i).getKey());
+                        ps.setLong(4, productId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                });
+        for (int count : counts) {
+            if (count == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Legacy rows still holding their bytes in product_image.image
+    public List<Long> findLegacyImageIds(int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM product_image WHERE storage_key IS NULL ORDER BY id LIMIT ?", Long.class, limit);
+    }
+
+    // Copies bytes [offset, offset + length) of a legacy image to the output stream, one chunk at a time
+    public void writeLegacyContent(Long id, long offset, long length, OutputStream out) {
+        long end = offset + length;
+        for (long position = offset; position < end; position += CHUNK_SIZE) {
+            long chunkLength = Math.min(CHUNK_SIZE, end - position);
+            jdbcTemplate.query("SELECT substring(image FROM ? FOR ?) FROM product_image WHERE id = ?",
+                    rs -> {
+                        try (InputStream in = rs.getBinaryStream(1)) {
+                            in.transferTo(out);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    position + 1, chunkLength, id);
+        }
+    }
+
+    // Point a legacy row at its ImageStore copy and release the inline bytes
+    public void completeLegacyMigration(Long id, String storageKey) {
+        jdbcTemplate.update("UPDATE product_image SET storage_key = ?, image = NULL WHERE id = ? AND storage_key IS NULL", storageKey, id);
+    }
+}
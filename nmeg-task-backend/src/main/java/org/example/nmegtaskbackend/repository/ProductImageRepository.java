@@ -1,14 +1,36 @@
 package org.example.nmegtaskbackend.repository;
 
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
 import org.example.nmegtaskbackend.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long>
 {
     List<ProductImage> findByProductIdOrderByImageOrderAsc(Long productId);
-    void deleteByProductId(Long productId);
+
+    // Batch lookup used by the Product.images DataLoader
+    List<ProductImageSummary> findByProductIdInOrderByImageOrderAsc(Collection<Long> productIds);
+
+    Optional<ProductImageSummary> findSummaryById(Long id);
+
+    long countByProductId(Long productId);
+
+    // Which of the given storage keys are still referenced by some image
+    @Query("SELECT DISTINCT i.storageKey FROM ProductImage i WHERE i.storageKey IN :storageKeys")
+    List<String> findReferencedStorageKeys(@Param("storageKeys") Collection<String> storageKeys);
+
+    // Uploads that were never attached to a product
+    @Modifying
+    @Query("DELETE FROM ProductImage i WHERE i.productId IS NULL AND i.createdAt < :cutoff")
+    int deleteUnattachedCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,112 @@
+package org.example.nmegtaskbackend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.example.nmegtaskbackend.entity.Product;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Read side for product lists: selects only the requested columns and returns detached
+// Product instances, so no entity is hydrated, tracked or snapshotted and unused columns
+// (notably the description TEXT) are never read. Fields that were not selected are null.
+@Repository
+public class ProductReadRepository {
+
+    // Columns that can be selected; id is always selected
+    public static final Set<String> COLUMNS = Set.of("name", "description", "categoryId");
+
+    private final EntityManager entityManager;
+
+    public ProductReadRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Keyset page ordered by id, optionally filtered by category and a case-insensitive name
+    // fragment. after is the last id of the previous page, or null for the first page.
+    public Window<Product> scroll(Set<String> columns, Long categoryId, String nameContains, Long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        query.multiselect(selections(product, columns));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (categoryId != null) {
+            predicates.add(cb.equal(product.get("categoryId"), categoryId));
+        }
+        if (nameContains != null) {
+            predicates.add(cb.like(cb.upper(product.get("name")), "%" + escapeLike(nameContains.toUpperCase(Locale.ROOT)) + "%", '\\'));
+        }
+        if (after != null) {
+            predicates.add(cb.greaterThan(product.get("id"), after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(product.get("id")));
+
+        List<Product> products = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultStream()
+                .map(tuple -> toProduct(tuple, columns))
+                .toList();
+        boolean hasNext = products.size() > limit;
+        List<Product> page = hasNext ? products.subList(0, limit) : products;
+        // Same cursor keys as Spring Data keyset windows ordered by id
+        return Window.from(page, index -> ScrollPosition.forward(Map.of("id", page.get(index).getId())), hasNext);
+    }
+
+    public List<Product> findAllById(Set<String> columns, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        query.multiselect(selections(product, columns));
+        query.where(product.get("id").in(ids));
+        return entityManager.createQuery(query).getResultStream()
+                .map(tuple -> toProduct(tuple, columns))
+                .toList();
+    }
+
+    private static List<Selection<?>> selections(Root<Product> product, Set<String> columns) {
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(product.get("id").alias("id"));
+        for (String column : COLUMNS) {
+            if (columns.contains(column)) {
+                selections.add(product.get(column).alias(column));
+            }
+        }
+        return selections;
+    }
+
+    private static Product toProduct(Tuple tuple, Set<String> columns) {
+        Product product = new Product();
+        product.setId(tuple.get("id", Long.class));
+        if (columns.contains("name")) {
+            product.setName(tuple.get("name", String.class));
+        }
+        if (columns.contains("description")) {
+            product.setDescription(tuple.get("description", String.class));
+        }
+        if (columns.contains("categoryId")) {
+            product.setCategoryId(tuple.get("categoryId", Long.class));
+        }
+        return product;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
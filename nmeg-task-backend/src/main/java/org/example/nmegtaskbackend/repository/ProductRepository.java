@@ -1,20 +1,39 @@
 package org.example.nmegtaskbackend.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.nmegtaskbackend.entity.Product;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    List<Product> findByCategoryId(Long categoryId);
-    
-    List<Product> findByNameContainingIgnoreCase(String namePattern);
+    // Batch lookup used by the Category.products DataLoader: the first limit products of each
+    // category by id
+    @Query(value = """
+            SELECT id, name, description, category_id FROM (
+                SELECT p.id, p.name, p.description, p.category_id,
+                       ROW_NUMBER() OVER (PARTITION BY p.category_id ORDER BY p.id) AS position
+                FROM product p WHERE p.category_id IN (:categoryIds)
+            ) ranked WHERE position <= :limit ORDER BY category_id, id
+            """, nativeQuery = true)
+    List<Product> findFirstProductsPerCategory(Collection<Long> categoryIds, int limit);
 
-    @Query("SELECT p FROM Product p WHERE p.categoryId = :categoryId AND LOWER(p.name) LIKE LOWER(CONCAT('%', :namePattern, '%'))")
-    List<Product> findByCategoryIdAndNameContainingIgnoreCase(@Param("categoryId") Long categoryId, @Param("namePattern") String namePattern);
+    @Query("SELECT p.id FROM Product p WHERE p.categoryId = :categoryId ORDER BY p.id")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    // Cursor over the whole catalog for the export; callers must clear the persistence context
+    // as they go, and consume the stream inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Product> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,88 @@
+package org.example.nmegtaskbackend.repository;
+
+import org.example.nmegtaskbackend.dto.ProductSearchHit;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// Ranked product search over the pg_trgm and tsvector indexes added in V7, plus the feed for
+// the in-memory typeahead index
+@Repository
+public class ProductSearchRepository {
+
+    private static final int FETCH_SIZE = 1_000;
+
+    // Full-text matches rank by ts_rank over the weighted name/description document; the
+    // trigram similarity of the name keeps partially typed words and typos ranked sensibly.
+    // The indexes only find the matches: every match is ranked before a page is cut, and a later
+    // page ranks them again, so a term common to much of the catalog costs a pass over all of
+    // its matches per page.
+    private static final String SEARCH_SQL = """
+            SELECT id, rank FROM (
+                SELECT p.id, (ts_rank(p.search_vector, q.query) + similarity(p.name, ?))::real AS rank
+                FROM product p, websearch_to_tsquery('english', ?) AS q(query)
+                WHERE (p.search_vector @@ q.query OR upper(p.name) LIKE upper(?) ESCAPE '\\')%s
+            ) hits%s
+            ORDER BY rank DESC, id
+            LIMIT ?
+            """;
+
+    private static final String SUGGESTION_SQL =
+            "SELECT p.id, p.name, p.description, p.category_id, c.name AS category_name FROM product p JOIN category c ON c.id = p.category_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Hits ordered by rank, then id; after is the last hit of the previous page, or null
+    public List<ProductSearchHit> search(String query, Long categoryId, ProductSearchHit after, int limit) {
+        List<Object> args = new ArrayList<>(List.of(query, query, "%" + escapeLike(query) + "%"));
+        String categoryFilter = "";
+        if (categoryId != null) {
+            categoryFilter = " AND p.category_id = ?";
+            args.add(categoryId);
+        }
+        String cursorFilter = "";
+        if (after != null) {
+            cursorFilter = " WHERE rank < ?::real OR (rank = ?::real AND id > ?)";
+            args.add(after.getRank());
+            args.add(after.getRank());
+            args.add(after.getId());
+        }
+        args.add(limit);
+
+        return jdbcTemplate.query(SEARCH_SQL.formatted(categoryFilter, cursorFilter),
+                (rs, rowNum) -> new ProductSearchHit(rs.getLong("id"), rs.getFloat("rank")),
+                args.toArray());
+    }
+
+    // Streams every product with its category name and description. Must run in a transaction
+    // so the PostgreSQL driver honours the fetch size instead of buffering the whole result.
+    public void forEachProduct(BiConsumer<ProductSuggestion, String> consumer) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        streaming.query(SUGGESTION_SQL, suggestionHandler(consumer));
+    }
+
+    // The same rows for one category, for re-indexing its products after a rename
+    public void forEachProductInCategory(Long categoryId, BiConsumer<ProductSuggestion, String> consumer) {
+        jdbcTemplate.query(SUGGESTION_SQL + " WHERE p.category_id = ?", suggestionHandler(consumer), categoryId);
+    }
+
+    private static RowCallbackHandler suggestionHandler(BiConsumer<ProductSuggestion, String> consumer) {
+        return rs -> consumer.accept(
+                new ProductSuggestion(rs.getLong("id"), rs.getString("name"), rs.getLong("category_id"), rs.getString("category_name")),
+                rs.getString("description"));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
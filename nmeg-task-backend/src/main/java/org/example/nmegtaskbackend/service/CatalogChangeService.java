@@ -0,0 +1,60 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.dto.CatalogChanges;
+import org.example.nmegtaskbackend.entity.CatalogChange;
+import org.example.nmegtaskbackend.repository.CatalogChangeRepository;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// The change log behind catalogChangesSince. Writers record their changes inside their own
+// transaction, so a change is logged if and only if it commits. The rows are written just before
+// the commit, in the order they were recorded, so the counter row the log locks (see
+// CatalogChangeRepository) is held for the commit rather than the whole transaction. Each
+// category and product keeps only its latest change, deletes included as tombstones, so a mirror
+// that has applied everything up to some version fetches just what differs since, however often
+// things changed.
+@Service
+public class CatalogChangeService {
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ProductRepository productRepository;
+
+    public CatalogChangeService(CatalogChangeRepository catalogChangeRepository, ProductRepository productRepository) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public CatalogChanges getChangesSince(long version, int limit) {
+        List<CatalogChange> changes = catalogChangeRepository.findSince(version, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        return new CatalogChanges(changes, changes.isEmpty() ? version : changes.get(changes.size() - 1).getVersion(), hasMore);
+    }
+
+    void created(String entityType, List<Long> ids) {
+        TransactionCallbacks.beforeCommit(() -> catalogChangeRepository.insert(entityType, ids));
+    }
+
+    void updated(String entityType, List<Long> ids) {
+        TransactionCallbacks.beforeCommit(() -> catalogChangeRepository.replace(entityType, ids, false));
+    }
+
+    void deleted(String entityType, List<Long> ids) {
+        TransactionCallbacks.beforeCommit(() -> catalogChangeRepository.replace(entityType, ids, true));
+    }
+
+    // Its products are deleted with it and get tombstones too, so call before the delete.
+    // Returns the ids of those products.
+    List<Long> categoryDeleted(Long categoryId) {
+        List<Long> productIds = productRepository.findIdsByCategoryId(categoryId);
+        deleted(CatalogChange.PRODUCT, productIds);
+        deleted(CatalogChange.CATEGORY, List.of(categoryId));
+        return productIds;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.nmegtaskbackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.nmegtaskbackend.dto.CategoryChange;
+import org.example.nmegtaskbackend.dto.ProductChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+// In-process bus behind the productChanged and categoryChanged subscriptions. Services publish
+// after commit, so subscribers never see a write that is rolled back. Publishing only hands the
+// event to each subscriber's buffer; the subscription is executed and written out on its own
+// virtual thread, so a slow client never holds up the writer or the other subscribers. A
+// subscriber whose buffer fills up is dropped from the bus rather than being allowed to grow the
+// heap; it still gets what was buffered, then an error telling it to refetch and subscribe again.
+// Events are per instance: writes made through another instance are not seen.
+@Component
+public class CatalogEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogEvents.class);
+
+    private final Sinks.Many<ProductChange> products = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Many<CategoryChange> categories = Sinks.many().multicast().directBestEffort();
+    private final Scheduler delivery = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "catalog-events");
+    private final int bufferSize;
+    private final Counter dropped;
+
+    public CatalogEvents(@Value("${app.graphql.subscriptions.buffer-size}") int bufferSize, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.dropped = Counter.builder("catalog.events.dropped")
+                .description("Subscribers dropped for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("catalog.events.subscribers", this, events -> events.products.currentSubscriberCount() + events.categories.currentSubscriberCount())
+                .description("Open catalog change subscriptions")
+                .register(meterRegistry);
+    }
+
+    public Flux<ProductChange> productChanges() {
+        return subscribe(products);
+    }
+
+    public Flux<CategoryChange> categoryChanges() {
+        return subscribe(categories);
+    }
+
+    void publishProducts(List<ProductChange> changes) {
+        publish(products, changes);
+    }
+
+    void publishCategories(List<CategoryChange> changes) {
+        publish(categories, changes);
+    }
+
+    // Ends open subscriptions so their responses complete before the server stops
+    @PreDestroy
+    void close() {
+        synchronized (products) {
+            products.tryEmitComplete();
+        }
+        synchronized (categories) {
+            categories.tryEmitComplete();
+        }
+        delivery.dispose();
+    }
+
+    private <T> Flux<T> subscribe(Sinks.Many<T> sink) {
+        return sink.asFlux()
+                .onBackpressureBuffer(bufferSize, overflow -> {
+                    dropped.increment();
+                    logger.warn("Dropped a catalog change subscriber that fell {} events behind", bufferSize);
+                })
+                .publishOn(delivery, 1);
+    }
+
+    private static <T> void publish(Sinks.Many<T> sink, List<T> changes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionCallbacks.afterCommit(() -> emit(sink, changes));
+        } else {
+            emit(sink, changes);
+        }
+    }
+
+    // A sink must not be emitted to concurrently; events with no subscribers are discarded
+    private static <T> void emit(Sinks.Many<T> sink, List<T> changes) {
+        synchronized (sink) {
+            for (T change : changes) {
+                sink.tryEmitNext(change);
+            }
+        }
+    }
+}
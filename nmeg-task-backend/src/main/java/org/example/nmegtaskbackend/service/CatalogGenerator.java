@@ -0,0 +1,195 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.config.CacheConfig;
+import org.example.nmegtaskbackend.dto.ImageContent;
+import org.example.nmegtaskbackend.entity.CatalogChange;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Fills an empty database with a synthetic catalog for load testing (app.generator.*).
+// Categories get a mix of open-ended, scheduled-to-expire and expired validity windows;
+// product names and descriptions are drawn from word lists so search and typeahead have
+// realistic matches; image sizes follow a log-normal distribution around the median.
+// Image bytes are random behind a JPEG signature, so they are stored and served like uploads
+// but cannot be resized.
+@Component
+@ConditionalOnProperty(name = "app.generator.enabled", havingValue = "true")
+public class CatalogGenerator implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    private static final int CHUNK_SIZE = 1_000;
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    private static final String[] MATERIALS = {"Oak", "Walnut", "Brass", "Steel", "Linen", "Leather", "Ceramic", "Glass", "Bamboo", "Marble", "Copper", "Wool"};
+    private static final String[] STYLES = {"Classic", "Modern", "Rustic", "Compact", "Folding", "Vintage", "Nordic", "Industrial", "Minimal", "Deluxe"};
+    private static final String[] ITEMS = {"Desk", "Chair", "Lamp", "Shelf", "Table", "Stool", "Cabinet", "Mirror", "Rug", "Vase", "Bench", "Clock", "Sofa", "Bed", "Drawer"};
+    private static final String[] DEPARTMENTS = {"Living Room", "Bedroom", "Office", "Kitchen", "Outdoor", "Lighting", "Storage", "Decor", "Bathroom", "Kids"};
+    private static final String[] PHRASES = {"hand finished", "easy to assemble", "solid construction", "water resistant",
+            "sustainably sourced", "fits small spaces", "soft close hinges", "adjustable height", "scratch resistant",
+            "ships flat packed", "two year warranty", "stain resistant fabric", "warm white light", "natural grain"};
+
+    private final CategoryRepository categoryRepository;
+    private final ProductBulkRepository productBulkRepository;
+    private final ProductImageService productImageService;
+    private final CategoryValidityIndex categoryValidityIndex;
+    private final ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final CatalogChangeService catalogChangeService;
+    private final int categories;
+    private final int products;
+    private final int maxImagesPerProduct;
+    private final long medianImageSize;
+    private final double imageSizeSigma;
+    private final Random random;
+
+    public CatalogGenerator(CategoryRepository categoryRepository, ProductBulkRepository productBulkRepository,
+                            ProductImageService productImageService, CategoryValidityIndex categoryValidityIndex,
+                            ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex, TransactionTemplate transactionTemplate,
+                            CatalogVersion catalogVersion, CatalogChangeService catalogChangeService,
+                            @Value("${app.generator.categories:100}") int categories,
+                            @Value("${app.generator.products:10000}") int products,
+                            @Value("${app.generator.max-images-per-product:3}") int maxImagesPerProduct,
+                            @Value("${app.generator.image-size-median:64KB}") DataSize medianImageSize,
+                            @Value("${app.generator.image-size-sigma:0.8}") double imageSizeSigma,
+                            @Value("${app.generator.seed:42}") long seed) {
+        this.categoryRepository = categoryRepository;
+        this.productBulkRepository = productBulkRepository;
+        this.productImageService = productImageService;
+        this.categoryValidityIndex = categoryValidityIndex;
+        this.productTypeaheadIndex = productTypeaheadIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.catalogChangeService = catalogChangeService;
+        this.categories = categories;
+        this.products = products;
+        this.maxImagesPerProduct = maxImagesPerProduct;
+        this.medianImageSize = medianImageSize.toBytes();
+        this.imageSizeSigma = imageSizeSigma;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    public void run(ApplicationArguments args) {
+        if (categoryRepository.count() > 0) {
+            logger.info("Catalog generator skipped: the database already has categories");
+            return;
+        }
+        long started = System.nanoTime();
+
+        List<Long> categoryIds = transactionTemplate.execute(status -> generateCategories());
+        long imageBytes = 0;
+        for (int offset = 0; offset < products; offset += CHUNK_SIZE) {
+            int count = Math.min(CHUNK_SIZE, products - offset);
+            int first = offset;
+            imageBytes += transactionTemplate.execute(status -> generateProducts(first, count, categoryIds));
+        }
+
+        categoryValidityIndex.reload();
+        productTypeaheadIndex.ifAvailable(ProductTypeaheadIndex::rebuild);
+        catalogVersion.changed();
+        logger.info("Generated {} categories and {} products with {} MB of images in {} s", categories, products,
+                imageBytes / (1024 * 1024), (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private List<Long> generateCategories() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Category> generated = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            String name = pick(STYLES) + " " + pick(DEPARTMENTS) + " " + (i + 1);
+            LocalDateTime validFrom = now.minusDays(random.nextInt(3 * 365));
+            LocalDateTime validTo;
+            double window = random.nextDouble();
+            if (window < 0.7) {
+                validTo = null;
+            } else if (window < 0.9) {
+                validTo = now.plusDays(1 + random.nextInt(365));
+            } else {
+                // Already expired
+                validTo = validFrom.plusDays(1 + random.nextInt(Math.max(1, (int) Duration.between(validFrom, now).toDays())));
+            }
+            generated.add(new Category(name, validFrom, validTo));
+        }
+        List<Long> ids = categoryRepository.saveAll(generated).stream().map(Category::getId).toList();
+        catalogChangeService.created(CatalogChange.CATEGORY, ids);
+        return ids;
+    }
+
+    // Returns the number of image bytes written
+    private long generateProducts(int first, int count, List<Long> categoryIds) {
+        List<Product> chunk = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName(pick(MATERIALS) + " " + pick(STYLES) + " " + pick(ITEMS) + " " + (first + i + 1));
+            product.setDescription(description());
+            product.setCategoryId(categoryIds.get(random.nextInt(categoryIds.size())));
+            chunk.add(product);
+        }
+        productBulkRepository.assignIds(chunk);
+        productBulkRepository.insert(chunk);
+        catalogChangeService.created(CatalogChange.PRODUCT, chunk.stream().map(Product::getId).toList());
+
+        long imageBytes = 0;
+        for (Product product : chunk) {
+            int imageCount = random.nextInt(maxImagesPerProduct + 1);
+            List<ImageContent> contents = new ArrayList<>(imageCount);
+            for (int i = 0; i < imageCount; i++) {
+                byte[] image = image();
+                contents.add(new ImageContent(new ByteArrayResource(image), image.length, null));
+                imageBytes += image.length;
+            }
+            if (!contents.isEmpty()) {
+                productImageService.appendImages(product.getId(), contents);
+            }
+        }
+        return imageBytes;
+    }
+
+    private String description() {
+        // Roughly a quarter of products have no description
+        if (random.nextInt(4) == 0) {
+            return null;
+        }
+        StringBuilder description = new StringBuilder(pick(STYLES)).append(' ').append(pick(ITEMS).toLowerCase()).append(" in ")
+                .append(pick(MATERIALS).toLowerCase());
+        int phrases = 1 + random.nextInt(4);
+        for (int i = 0; i < phrases; i++) {
+            description.append(", ").append(pick(PHRASES));
+        }
+        return description.append('.').toString();
+    }
+
+    private byte[] image() {
+        long size = Math.round(medianImageSize * Math.exp(imageSizeSigma * random.nextGaussian()));
+        byte[] image = new byte[(int) Math.min(Math.max(size, JPEG_SIGNATURE.length + 1), 10L * 1024 * 1024)];
+        random.nextBytes(image);
+        System.arraycopy(JPEG_SIGNATURE, 0, image, 0, JPEG_SIGNATURE.length);
+        return image;
+    }
+
+    private String pick(String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.nmegtaskbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versions GraphQL GET responses (see GraphQLGetHandler) by the change log's counter row, which
+// every committed catalog write advances, so all instances tag the same catalog state alike and
+// ETags survive restarts. The counter is read at most once per version-ttl; writes made through
+// this instance drop the cached value after commit, so its own clients see them at once, while
+// writes through another instance show up within the TTL. The ETag also covers the next category
+// expiry, which changes activeCategories without a write.
+@Component
+public class CatalogVersion {
+
+    private static final String VERSION_SQL = "SELECT version FROM catalog_change_counter WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryValidityIndex categoryValidityIndex;
+    private final long ttlNanos;
+    // Local commits so far; a cached version read before the latest one is stale
+    private final AtomicLong commits = new AtomicLong();
+    private volatile CachedVersion cached;
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate, CategoryValidityIndex categoryValidityIndex,
+                          @Value("${app.graphql.http-cache.version-ttl}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryValidityIndex = categoryValidityIndex;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // Strong ETag for a response read from the catalog as it is now
+    public String etag() {
+        return "\"" + Long.toString(version(), 36)
+                + "-" + Long.toString(categoryValidityIndex.activeUntilMillis(), 36) + "\"";
+    }
+
+    // Call from a transaction that also records the change in CatalogChangeService
+    void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionCallbacks.afterCommit(commits::incrementAndGet);
+        } else {
+            commits.incrementAndGet();
+        }
+    }
+
+    private long version() {
+        CachedVersion current = cached;
+        long now = System.nanoTime();
+        if (current != null && current.commits() == commits.get() && now - current.readAt() < ttlNanos) {
+            return current.version();
+        }
+        long commitsBeforeRead = commits.get();
+        // V9 inserts the row; schemas generated by Hibernate start without it until the first write
+        Long version = jdbcTemplate.query(VERSION_SQL, rs -> rs.next() ? rs.getLong(1) : 0L);
+        cached = new CachedVersion(version, commitsBeforeRead, now);
+        return version;
+    }
+
+    private record CachedVersion(long version, long commits, long readAt) {
+    }
+}
@@ -1,27 +1,62 @@
 package org.example.nmegtaskbackend.service;
 
+import org.example.nmegtaskbackend.config.CacheConfig;
+import org.example.nmegtaskbackend.dto.CategoryChange;
 import org.example.nmegtaskbackend.dto.CategoryInput;
+import org.example.nmegtaskbackend.dto.ProductChange;
+import org.example.nmegtaskbackend.entity.CatalogChange;
 import org.example.nmegtaskbackend.entity.Category;
 import org.example.nmegtaskbackend.exception.ResourceNotFoundException;
 import org.example.nmegtaskbackend.exception.ValidationException;
 import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CategoryService {
     
+    private static final int MAX_BULK_SIZE = 1_000;
+    
     private final CategoryRepository categoryRepository;
+    private final CategoryValidityIndex categoryValidityIndex;
+    private final Cache categoryCache;
+    private final CatalogVersion catalogVersion;
+    private final CatalogEvents catalogEvents;
+    private final CatalogChangeService catalogChangeService;
+    private final ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryValidityIndex categoryValidityIndex, CacheManager cacheManager, CatalogVersion catalogVersion, CatalogEvents catalogEvents, CatalogChangeService catalogChangeService, ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex) {
         this.categoryRepository = categoryRepository;
+        this.categoryValidityIndex = categoryValidityIndex;
+        this.categoryCache = cacheManager.getCache(CacheConfig.CATEGORIES);
+        this.catalogVersion = catalogVersion;
+        this.catalogEvents = catalogEvents;
+        this.catalogChangeService = catalogChangeService;
+        this.productTypeaheadIndex = productTypeaheadIndex;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public Category createCategory(CategoryInput categoryInput) {
         // Validate input
         validateCategoryInput(categoryInput);
@@ -35,37 +70,117 @@ public class CategoryService {
         category.setValidFrom(categoryInput.getValidFrom() != null ? categoryInput.getValidFrom() : LocalDateTime.now());
         category.setValidTo(categoryInput.getValidTo());
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        TransactionCallbacks.afterCommit(() -> categoryValidityIndex.put(saved));
+        catalogVersion.changed();
+        catalogEvents.publishCategories(List.of(CategoryChange.created(saved)));
+        catalogChangeService.created(CatalogChange.CATEGORY, List.of(saved.getId()));
+        return saved;
+    }
+    
+    // Creates or updates categories matched by name, in one transaction with batched writes
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    public List<Category> bulkUpsertCategories(List<CategoryInput> categoryInputs) {
+        if (categoryInputs == null || categoryInputs.isEmpty()) {
+            throw new ValidationException("At least one category is required");
+        }
+        if (categoryInputs.size() > MAX_BULK_SIZE) {
+            throw new ValidationException("At most " + MAX_BULK_SIZE + " categories can be upserted at once");
+        }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < categoryInputs.size(); i++) {
+            try {
+                validateCategoryInput(categoryInputs.get(i));
+            } catch (ValidationException e) {
+                throw new ValidationException("Category at index " + i + ": " + e.getMessage());
+            }
+            if (!names.add(categoryInputs.get(i).getName())) {
+                throw new ValidationException("Category at index " + i + ": name '" + categoryInputs.get(i).getName() + "' appears more than once");
+            }
+        }
+
+        Map<String, Category> existingByName = categoryRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(Category::getName, Function.identity(), (first, second) -> first));
+        List<Category> categories = new ArrayList<>();
+        for (CategoryInput categoryInput : categoryInputs) {
+            Category category = existingByName.get(categoryInput.getName());
+            if (category == null) {
+                category = new Category();
+                category.setName(categoryInput.getName());
+                category.setValidFrom(categoryInput.getValidFrom() != null ? categoryInput.getValidFrom() : LocalDateTime.now());
+            } else if (categoryInput.getValidFrom() != null) {
+                category.setValidFrom(categoryInput.getValidFrom());
+            }
+            category.setValidTo(categoryInput.getValidTo());
+            categories.add(category);
+        }
+
+        List<Category> saved = categoryRepository.saveAll(categories);
+        TransactionCallbacks.afterCommit(() -> saved.forEach(categoryValidityIndex::put));
+        catalogVersion.changed();
+        catalogEvents.publishCategories(saved.stream()
+                .map(category -> existingByName.containsKey(category.getName()) ? CategoryChange.updated(category) : CategoryChange.created(category))
+                .toList());
+        Map<Boolean, List<Long>> idsByExisting = saved.stream().collect(Collectors.partitioningBy(
+                category -> existingByName.containsKey(category.getName()), Collectors.mapping(Category::getId, Collectors.toList())));
+        catalogChangeService.created(CatalogChange.CATEGORY, idsByExisting.get(false));
+        catalogChangeService.updated(CatalogChange.CATEGORY, idsByExisting.get(true));
+        return saved;
     }
     
     @Transactional(readOnly = true)
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    public Window<Category> getCategories(ScrollPosition position, int limit) {
+        return categoryRepository.findAllByOrderByIdAsc(position, Limit.of(limit));
     }
     
+    @Cacheable(CacheConfig.CATEGORIES)
     @Transactional(readOnly = true)
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
     
+    // Get categories for a batch of ids (DataLoader); only ids missing from the cache are queried
     @Transactional(readOnly = true)
+    public List<Category> getCategoriesByIds(Collection<Long> ids) {
+        List<Category> categories = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            Category category = categoryCache.get(id, Category.class);
+            if (category != null) {
+                categories.add(category);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Category category : categoryRepository.findByIdIn(missingIds)) {
+                categoryCache.put(category.getId(), category);
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+    
+    // Served from the in-memory validity index rather than the database
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Category> getActiveCategories() {
-        return categoryRepository.findByValidToIsNullOrValidToAfter(LocalDateTime.now());
+        return categoryValidityIndex.activeCategories();
     }
     
     // Get categories valid at a specific time
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Category> getCategoriesValidAt(LocalDateTime dateTime) {
-        return categoryRepository.findCategoriesValidAt(dateTime);
+        return categoryValidityIndex.validAt(dateTime);
     }
     
     // Search categories by name
     @Transactional(readOnly = true)
-    public List<Category> searchCategoriesByName(String name) {
-        return categoryRepository.findByNameContainingIgnoreCase(name);
+    public Window<Category> searchCategoriesByName(String name, ScrollPosition position, int limit) {
+        return categoryRepository.findByNameContainingIgnoreCaseOrderByIdAsc(name, position, Limit.of(limit));
     }
     
     // Update category
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public Category updateCategory(Long id, CategoryInput categoryInput) {
         // Validate input
         validateCategoryInput(categoryInput);
@@ -79,23 +194,39 @@ public class CategoryService {
             throw new ValidationException("Category with name '" + categoryInput.getName() + "' already exists");
         }
         
+        boolean renamed = !existingCategory.getName().equals(categoryInput.getName());
         existingCategory.setName(categoryInput.getName());
         existingCategory.setValidFrom(categoryInput.getValidFrom() != null ? categoryInput.getValidFrom() : existingCategory.getValidFrom());
         existingCategory.setValidTo(categoryInput.getValidTo());
         
-        return categoryRepository.save(existingCategory);
+        Category saved = categoryRepository.save(existingCategory);
+        TransactionCallbacks.afterCommit(() -> categoryValidityIndex.put(saved));
+        if (renamed) {
+            productTypeaheadIndex.ifAvailable(index -> TransactionCallbacks.afterCommit(() -> index.reindexCategory(id)));
+        }
+        catalogVersion.changed();
+        catalogEvents.publishCategories(List.of(CategoryChange.updated(saved)));
+        catalogChangeService.updated(CatalogChange.CATEGORY, List.of(id));
+        return saved;
     }
     
     // Delete category
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public boolean deleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
+            List<Long> productIds = catalogChangeService.categoryDeleted(id);
             categoryRepository.deleteById(id);
+            TransactionCallbacks.afterCommit(() -> categoryValidityIndex.remove(id));
+            productTypeaheadIndex.ifAvailable(index -> TransactionCallbacks.afterCommit(() -> productIds.forEach(index::remove)));
+            // Products are deleted with their category; productChanged subscribers get each delete
+            catalogVersion.changed();
+            catalogEvents.publishCategories(List.of(CategoryChange.deleted(id)));
+            catalogEvents.publishProducts(productIds.stream().map(productId -> ProductChange.deleted(productId, id)).toList());
             return true;
         }
         return false;
     }
 
-    
     // Validate category input
     private void validateCategoryInput(CategoryInput categoryInput) {
         if (categoryInput.getName() == null || categoryInput.getName().trim().isEmpty()) {
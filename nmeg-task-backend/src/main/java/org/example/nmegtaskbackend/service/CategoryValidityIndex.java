@@ -0,0 +1,187 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+// In-memory index of category validity windows [validFrom, validTo). The categories are held in
+// an immutable snapshot that is swapped on every change, so readers never lock. Mutations made
+// through CategoryService are applied after commit; the periodic reload picks up anything else,
+// such as changes made by other instances.
+@Component
+public class CategoryValidityIndex {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+    private volatile ActiveSet activeSet;
+
+    public CategoryValidityIndex(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    // Categories whose validTo is unset or still in the future. The set is precomputed and only
+    // recomputed once the earliest validTo in it has passed, so most calls are a reference read.
+    public List<Category> activeCategories() {
+        return activeSet().categories;
+    }
+
+    // When the earliest validTo among the active categories passes, i.e. when activeCategories()
+    // next changes without a write
+    public long activeUntilMillis() {
+        return activeSet().validUntilMillis;
+    }
+
+    // Categories valid at the given time, ordered by validFrom, in O(log n + k)
+    public List<Category> validAt(LocalDateTime dateTime) {
+        Snapshot current = snapshot();
+        List<Category> result = new ArrayList<>();
+        current.collectValidAt(dateTime, 0, current.byStart.length - 1, result);
+        return result;
+    }
+
+    public synchronized void put(Category category) {
+        List<Category> categories = new ArrayList<>(snapshot().categories());
+        categories.removeIf(existing -> existing.getId().equals(category.getId()));
+        categories.add(category);
+        snapshot = new Snapshot(categories);
+    }
+
+    public synchronized void remove(Long id) {
+        List<Category> categories = new ArrayList<>(snapshot().categories());
+        categories.removeIf(existing -> existing.getId().equals(id));
+        snapshot = new Snapshot(categories);
+    }
+
+    @Scheduled(fixedDelayString = "${app.categories.validity-index.refresh-interval:PT5M}",
+            initialDelayString = "${app.categories.validity-index.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        snapshot = new Snapshot(categoryRepository.findAll());
+    }
+
+    private ActiveSet activeSet() {
+        Snapshot current = snapshot();
+        ActiveSet active = activeSet;
+        if (active == null || active.snapshot != current || System.currentTimeMillis() >= active.validUntilMillis) {
+            active = current.activeAt(LocalDateTime.now());
+            activeSet = active;
+        }
+        return active;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private record ActiveSet(Snapshot snapshot, List<Category> categories, long validUntilMillis) {
+    }
+
+    // Categories sorted by validFrom, laid out as an implicit balanced search tree (the middle of
+    // each range is its root) where maxEnd[i] is the latest validTo in the subtree rooted at i.
+    // A second copy sorted by validTo answers "not yet expired" with one binary search.
+    private static final class Snapshot {
+
+        private final Category[] byStart;
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] ends;
+        private final LocalDateTime[] maxEnd;
+        private final Category[] byEnd;
+
+        Snapshot(List<Category> categories) {
+            byStart = categories.stream()
+                    .sorted(Comparator.comparing(Category::getValidFrom).thenComparing(Category::getId))
+                    .toArray(Category[]::new);
+            starts = Arrays.stream(byStart).map(Category::getValidFrom).toArray(LocalDateTime[]::new);
+            ends = Arrays.stream(byStart).map(Snapshot::end).toArray(LocalDateTime[]::new);
+            maxEnd = new LocalDateTime[byStart.length];
+            computeMaxEnd(0, byStart.length - 1);
+            byEnd = categories.stream()
+                    .sorted(Comparator.comparing(Snapshot::end).thenComparing(Category::getId))
+                    .toArray(Category[]::new);
+        }
+
+        List<Category> categories() {
+            return Arrays.asList(byStart);
+        }
+
+        ActiveSet activeAt(LocalDateTime now) {
+            // First category whose validTo is after now; it is also the next one to expire
+            int low = 0;
+            int high = byEnd.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (end(byEnd[mid]).isAfter(now)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            List<Category> active = List.of(Arrays.copyOfRange(byEnd, low, byEnd.length));
+            long validUntil = low < byEnd.length && byEnd[low].getValidTo() != null
+                    ? byEnd[low].getValidTo().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : Long.MAX_VALUE;
+            return new ActiveSet(this, active, validUntil);
+        }
+
+        void collectValidAt(LocalDateTime dateTime, int low, int high, List<Category> result) {
+            if (low > high) {
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            // Every window in this subtree has ended by dateTime
+            if (!maxEnd[mid].isAfter(dateTime)) {
+                return;
+            }
+            collectValidAt(dateTime, low, mid - 1, result);
+            // This window and everything to its right starts after dateTime
+            if (starts[mid].isAfter(dateTime)) {
+                return;
+            }
+            if (ends[mid].isAfter(dateTime)) {
+                result.add(byStart[mid]);
+            }
+            collectValidAt(dateTime, mid + 1, high, result);
+        }
+
+        private LocalDateTime computeMaxEnd(int low, int high) {
+            if (low > high) {
+                return LocalDateTime.MIN;
+            }
+            int mid = (low + high) >>> 1;
+            LocalDateTime max = ends[mid];
+            LocalDateTime left = computeMaxEnd(low, mid - 1);
+            LocalDateTime right = computeMaxEnd(mid + 1, high);
+            if (left.isAfter(max)) {
+                max = left;
+            }
+            if (right.isAfter(max)) {
+                max = right;
+            }
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        // An open-ended window never ends
+        private static LocalDateTime end(Category category) {
+            return Objects.requireNonNullElse(category.getValidTo(), LocalDateTime.MAX);
+        }
+    }
+}
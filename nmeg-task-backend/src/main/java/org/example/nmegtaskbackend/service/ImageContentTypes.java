@@ -0,0 +1,37 @@
+package org.example.nmegtaskbackend.service;
+
+// Detects an image content type from its leading bytes
+public final class ImageContentTypes {
+
+    public static final String DEFAULT = "application/octet-stream";
+
+    private ImageContentTypes() {}
+
+    public static String detect(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return DEFAULT;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
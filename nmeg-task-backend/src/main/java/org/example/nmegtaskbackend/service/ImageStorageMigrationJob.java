@@ -0,0 +1,38 @@
+package org.example.nmegtaskbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Moves images still stored inline in product_image.image into the configured ImageStore,
+// one transaction per batch so a failure only repeats the current batch
+@Component
+@ConditionalOnProperty(name = "app.images.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class ImageStorageMigrationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageMigrationJob.class);
+
+    private final ProductImageService productImageService;
+    private final int batchSize;
+
+    public ImageStorageMigrationJob(ProductImageService productImageService, @Value("${app.images.migration.batch-size:50}") int batchSize) {
+        this.productImageService = productImageService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.migration.interval:PT5M}", initialDelayString = "PT30S")
+    public void migrate() {
+        int total = 0;
+        int migrated;
+        do {
+            migrated = productImageService.migrateLegacyImages(batchSize);
+            total += migrated;
+        } while (migrated == batchSize);
+        if (total > 0) {
+            logger.info("Migrated {} product images into the image store", total);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.dto.ImageVariant;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Resizes product images on first request and keeps the results in a memory cache backed by
+// a disk cache, both bounded in bytes and evicted least recently used first. Variants are
+// keyed by the source's storage key, so images with identical content share them.
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final float LOSSY_QUALITY = 0.8f;
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final ProductImageService productImageService;
+    private final Set<Integer> widths;
+    private final Map<String, Format> formats;
+    private final Path cacheDirectory;
+    private final Path tempDirectory;
+    private final long diskCacheSize;
+    private final long memoryCacheSize;
+    private final long maxPixels;
+
+    // Both caches iterate in access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, ImageVariant> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    // At most one generation per variant at a time; concurrent requests wait for its result
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<ImageVariant>>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariantService(ProductImageService productImageService,
+                               @Value("${app.images.variants.widths}") List<Integer> widths,
+                               @Value("${app.images.variants.cache-directory}") Path cacheDirectory,
+                               @Value("${app.images.variants.disk-cache-size}") DataSize diskCacheSize,
+                               @Value("${app.images.variants.memory-cache-size}") DataSize memoryCacheSize,
+                               @Value("${app.images.variants.max-pixels}") long maxPixels) throws IOException {
+        this.productImageService = productImageService;
+        this.widths = new TreeSet<>(widths);
+        // WebP is only offered when an ImageIO plugin can encode it; the JDK itself cannot
+        this.formats = Arrays.stream(Format.values())
+                .filter(format -> ImageIO.getImageWritersByFormatName(format.name).hasNext())
+                .collect(Collectors.toMap(format -> format.name, format -> format, (a, b) -> a, LinkedHashMap::new));
+        this.cacheDirectory = cacheDirectory.toAbsolutePath();
+        this.tempDirectory = this.cacheDirectory.resolve(TEMP_DIRECTORY);
+        this.diskCacheSize = diskCacheSize.toBytes();
+        this.memoryCacheSize = memoryCacheSize.toBytes();
+        this.maxPixels = maxPixels;
+        loadDiskEntries();
+    }
+
+    // The key the variant is cached under, which also serves as its ETag, found without generating
+    // it. Empty when the source cannot be decoded.
+    public Optional<String> variantKey(ProductImageSummary image, Integer width, String formatName) {
+        Format format = format(image, width, formatName);
+        if (!ImageIO.getImageReadersByMIMEType(image.getContentType()).hasNext()) {
+            return Optional.empty();
+        }
+        return Optional.of(key(image, width, format));
+    }
+
+    // The variant of the image at the given width and format. Empty when the source cannot be
+    // decoded, or is too large to decode safely; callers then serve it as uploaded.
+    public Optional<ImageVariant> getVariant(ProductImageSummary image, Integer width, String formatName) {
+        Format format = format(image, width, formatName);
+        if (!ImageIO.getImageReadersByMIMEType(image.getContentType()).hasNext()) {
+            return Optional.empty();
+        }
+
+        String key = key(image, width, format);
+        ImageVariant cached = fromMemory(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        CompletableFuture<Optional<ImageVariant>> generation = new CompletableFuture<>();
+        CompletableFuture<Optional<ImageVariant>> existing = inFlight.putIfAbsent(key, generation);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Optional<ImageVariant> variant = load(image, key, width, format);
+            generation.complete(variant);
+            return variant;
+        } catch (RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, generation);
+        }
+    }
+
+    private Optional<ImageVariant> load(ProductImageSummary image, String key, int width, Format format) {
+        ImageVariant variant = fromDisk(key, format);
+        if (variant == null) {
+            byte[] data;
+            try {
+                data = generate(image, width, format);
+            } catch (IOException e) {
+                // Corrupt or truncated source; serving it as uploaded is the best we can do
+                logger.warn("Could not resize product image {}", image.getId(), e);
+                return Optional.empty();
+            }
+            if (data == null) {
+                return Optional.empty();
+            }
+            variant = new ImageVariant(key, format.contentType, data);
+            toDisk(variant);
+        }
+        toMemory(variant);
+        return Optional.of(variant);
+    }
+
+    private byte[] generate(ProductImageSummary image, int width, Format format) throws IOException {
+        BufferedImage source = decode(image, width);
+        if (source == null) {
+            return null;
+        }
+        // Never upscale; a width above the source's only re-encodes it
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        boolean opaque = !format.alpha || !source.getColorModel().hasAlpha();
+        return encode(resize(source, targetWidth, targetHeight, opaque), format);
+    }
+
+    private BufferedImage decode(ProductImageSummary image, int width) throws IOException {
+        try (ImageInputStream in = openSource(image)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    logger.warn("Not resizing product image {}: {}x{} exceeds the pixel limit", image.getId(), sourceWidth, sourceHeight);
+                    return null;
+                }
+                // Skip source pixels while decoding, keeping twice the target resolution for the final filtering pass
+                int subsampling = Math.max(1, sourceWidth / (width * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private ImageInputStream openSource(ProductImageSummary image) throws IOException {
+        Optional<Path> localPath = productImageService.localPath(image);
+        if (localPath.isPresent()) {
+            return new FileImageInputStream(localPath.get().toFile());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.toIntExact(image.getSize()));
+        productImageService.writeContent(image, 0, image.getSize(), out);
+        return new MemoryCacheImageInputStream(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    // Scale down in halving steps; a single bilinear pass over a large reduction skips most source pixels
+    private static BufferedImage resize(BufferedImage source, int width, int height, boolean opaque) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (opaque) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, Format format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format.name).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.lossy && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(LOSSY_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private Format defaultFormat(ProductImageSummary image) {
+        boolean mayHaveAlpha = "image/png".equals(image.getContentType()) || "image/gif".equals(image.getContentType());
+        return mayHaveAlpha ? Format.PNG : Format.JPEG;
+    }
+
+    // Images that are not migrated to the ImageStore yet have no storage key
+    private Format format(ProductImageSummary image, Integer width, String formatName) {
+        if (width == null || !widths.contains(width)) {
+            throw new ValidationException("Image width must be one of " + widths);
+        }
+        Format format = formatName == null ? defaultFormat(image) : formats.get(formatName.toLowerCase(Locale.ROOT));
+        if (format == null) {
+            throw new ValidationException("Image format must be one of " + formats.keySet());
+        }
+        return format;
+    }
+
+    private static String key(ProductImageSummary image, int width, Format format) {
+        return sourceKey(image) + "-" + width + "." + format.name;
+    }
+
+    private static String sourceKey(ProductImageSummary image) {
+        return image.getStorageKey() != null ? image.getStorageKey() : "image-" + image.getId() + "-" + image.getSize();
+    }
+
+    private synchronized ImageVariant fromMemory(String key) {
+        return memoryEntries.get(key);
+    }
+
+    private synchronized void toMemory(ImageVariant variant) {
+        if (variant.getSize() > memoryCacheSize || memoryEntries.containsKey(variant.getKey())) {
+            return;
+        }
+        memoryEntries.put(variant.getKey(), variant);
+        memoryBytes += variant.getSize();
+        Iterator<ImageVariant> eldest = memoryEntries.values().iterator();
+        while (memoryBytes > memoryCacheSize) {
+            memoryBytes -= eldest.next().getSize();
+            eldest.remove();
+        }
+    }
+
+    private ImageVariant fromDisk(String key, Format format) {
+        synchronized (this) {
+            if (diskEntries.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            return new ImageVariant(key, format.contentType, Files.readAllBytes(cacheDirectory.resolve(key)));
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the read
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void toDisk(ImageVariant variant) {
+        try {
+            // Write to a temp file first so a crash never leaves a partial variant in the cache
+            Path temp = Files.createTempFile(tempDirectory, variant.getKey(), null);
+            try {
+                Files.write(temp, variant.getData());
+                Files.move(temp, cacheDirectory.resolve(variant.getKey()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // The disk cache is an optimisation; the variant is still served from memory
+            logger.warn("Could not cache image variant {} on disk", variant.getKey(), e);
+            return;
+        }
+        List<String> evicted = registerOnDisk(variant.getKey(), variant.getSize());
+        for (String key : evicted) {
+            try {
+                Files.deleteIfExists(cacheDirectory.resolve(key));
+            } catch (IOException e) {
+                logger.warn("Could not evict image variant {} from disk", key, e);
+            }
+        }
+    }
+
+    // Record a file in the disk cache and return the keys evicted to stay within its size
+    private synchronized List<String> registerOnDisk(String key, long size) {
+        Long previous = diskEntries.put(key, size);
+        diskBytes += size - (previous != null ? previous : 0);
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = diskEntries.entrySet().iterator();
+        while (diskBytes > diskCacheSize && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            diskBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    // Pick up variants cached by a previous run, oldest first so they are evicted first
+    private void loadDiskEntries() throws IOException {
+        Files.createDirectories(tempDirectory);
+        try (Stream<Path> leftovers = Files.list(tempDirectory)) {
+            for (Path path : leftovers.toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            List<Path> cached = files.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(ImageVariantService::lastModified))
+                    .toList();
+            for (Path path : cached) {
+                for (String key : registerOnDisk(path.getFileName().toString(), Files.size(path))) {
+                    Files.deleteIfExists(cacheDirectory.resolve(key));
+                }
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private enum Format {
+        JPEG("jpeg", "image/jpeg", true, false),
+        PNG("png", "image/png", false, true),
+        WEBP("webp", "image/webp", true, true);
+
+        private final String name;
+        private final String contentType;
+        private final boolean lossy;
+        private final boolean alpha;
+
+        Format(String name, String contentType, boolean lossy, boolean alpha) {
+            this.name = name;
+            this.contentType = contentType;
+            this.lossy = lossy;
+            this.alpha = alpha;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.nmegtaskbackend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.repository.ProductImageRepository;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Writes the whole catalog as NDJSON or CSV straight to an output stream. Products come from a
+// database cursor and are handled in batches: each batch loads its image ids in one query, is
+// written and flushed, and is then cleared from the persistence context, so memory stays flat
+// and a slow client simply slows the cursor down.
+@Service
+@Transactional(readOnly = true)
+public class ProductExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, ProductImageRepository productImageRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String contentType(String format) {
+        return switch (format) {
+            case NDJSON -> "application/x-ndjson";
+            case CSV -> "text/csv";
+            default -> throw new ValidationException("Export format must be '" + NDJSON + "' or '" + CSV + "'");
+        };
+    }
+
+    // The CSV header matches what the import endpoint reads, so an export can be loaded back
+    public void export(String format, OutputStream output) {
+        contentType(format);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            JsonGenerator json = NDJSON.equals(format) ? objectMapper.getFactory().createGenerator(writer) : null;
+            if (json == null) {
+                writer.write("id,name,description,categoryId,imageUrls\n");
+            }
+
+            List<Product> batch = new ArrayList<>(BATCH_SIZE);
+            try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    batch.add(product);
+                    if (batch.size() == BATCH_SIZE) {
+                        writeBatch(batch, json, writer);
+                    }
+                }
+            }
+            writeBatch(batch, json, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBatch(List<Product> batch, JsonGenerator json, Writer writer) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, List<String>> imageUrls = new HashMap<>();
+        List<Long> productIds = batch.stream().map(Product::getId).toList();
+        for (ProductImageSummary image : productImageRepository.findByProductIdInOrderByImageOrderAsc(productIds)) {
+            imageUrls.computeIfAbsent(image.getProductId(), id -> new ArrayList<>()).add(ProductImageService.url(image.getId()));
+        }
+
+        for (Product product : batch) {
+            List<String> urls = imageUrls.getOrDefault(product.getId(), List.of());
+            if (json != null) {
+                writeJson(json, product, urls);
+            } else {
+                writeCsv(writer, product, urls);
+            }
+        }
+        if (json != null) {
+            json.flush();
+        } else {
+            writer.flush();
+        }
+
+        batch.clear();
+        entityManager.clear();
+    }
+
+    private static void writeJson(JsonGenerator json, Product product, List<String> imageUrls) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", product.getId());
+        json.writeStringField("name", product.getName());
+        json.writeStringField("description", product.getDescription());
+        json.writeNumberField("categoryId", product.getCategoryId());
+        json.writeArrayFieldStart("imageUrls");
+        for (String url : imageUrls) {
+            json.writeString(url);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsv(Writer writer, Product product, List<String> imageUrls) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getName());
+        writer.write(',');
+        writeCsvField(writer, product.getDescription());
+        writer.write(',');
+        writer.write(String.valueOf(product.getCategoryId()));
+        writer.write(',');
+        // Image URLs never contain spaces
+        writeCsvField(writer, String.join(" ", imageUrls));
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,403 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.dto.ImageContent;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
+import org.example.nmegtaskbackend.dto.UploadedImage;
+import org.example.nmegtaskbackend.entity.ProductImage;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.repository.ProductImageContentRepository;
+import org.example.nmegtaskbackend.repository.ProductImageRepository;
+import org.example.nmegtaskbackend.storage.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+public class ProductImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageService.class);
+
+    // Bytes needed to recognise every format ImageContentTypes knows about
+    private static final int HEADER_SIZE = 12;
+
+    // Blobs and uploads younger than this are never collected, so in-flight saves are safe
+    private static final Duration GRACE_PERIOD = Duration.ofDays(1);
+    private static final int GC_BATCH_SIZE = 500;
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductImageContentRepository productImageContentRepository;
+    private final ImageStore imageStore;
+
+    public ProductImageService(ProductImageRepository productImageRepository, ProductImageContentRepository productImageContentRepository, ImageStore imageStore) {
+        this.productImageRepository = productImageRepository;
+        this.productImageContentRepository = productImageContentRepository;
+        this.imageStore = imageStore;
+    }
+
+    // Path of the endpoint that serves the image bytes
+    public static String url(Long imageId) {
+        return "/images/" + imageId;
+    }
+
+    // Path of a resized variant; format may be null to let the server pick one
+    public static String url(Long imageId, Integer width, String format) {
+        if (width == null) {
+            return url(imageId);
+        }
+        return url(imageId) + "?w=" + width + (format != null ? "&format=" + format : "");
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ProductImageSummary> getImage(Long id) {
+        return productImageRepository.findSummaryById(id);
+    }
+
+    // Stream a byte range of the image without loading it as a whole. Deliberately
+    // non-transactional so a slow client never pins a pooled connection between chunks
+    public void writeContent(ProductImageSummary image, long offset, long length, OutputStream out) {
+        if (image.getStorageKey() == null) {
+            productImageContentRepository.writeLegacyContent(image.getId(), offset, length, out);
+        } else {
+            imageStore.read(image.getStorageKey(), offset, length, out);
+        }
+    }
+
+    // Local file holding the image, when the configured store keeps one
+    public Optional<Path> localPath(ProductImageSummary image) {
+        return image.getStorageKey() == null ? Optional.empty() : imageStore.localPath(image.getStorageKey());
+    }
+
+    // Store uploaded files as unattached images. The multipart parts are read from the
+    // container's spool files twice: once to hash them, once to copy them into the store
+    @Transactional
+    public List<UploadedImage> upload(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("At least one image file is required");
+        }
+
+        List<ImageContent> contents = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            if (file.isEmpty()) {
+                throw new ValidationException("Image file at index " + i + " is empty");
+            }
+            contents.add(new ImageContent(file, file.getSize(), null));
+        }
+
+        List<ProductImage> images = describe(null, 0, contents);
+        for (int i = 0; i < images.size(); i++) {
+            if (ImageContentTypes.DEFAULT.equals(images.get(i).getContentType())) {
+                throw new ValidationException("File at index " + i + " is not a supported image");
+            }
+        }
+        putAll(images, contents);
+        productImageContentRepository.insertAll(images);
+
+        return images.stream()
+                .map(image -> new UploadedImage(image.getId(), image.getContentType(), image.getSize(), url(image.getId())))
+                .toList();
+    }
+
+    // Make imageIds the product's complete, ordered image list; images no longer listed are deleted.
+    // Only rows that are new to the product or change position are written
+    @Transactional
+    public void replaceImages(Long productId, List<Long> imageIds) {
+        if (new HashSet<>(imageIds).size() != imageIds.size()) {
+            throw new ValidationException("Image ids must not contain duplicates");
+        }
+        Map<Long, Integer> currentOrders = new HashMap<>();
+        for (ProductImageSummary image : currentImages(productId)) {
+            currentOrders.put(image.getId(), image.getImageOrder());
+        }
+        Set<Long> removed = new HashSet<>(currentOrders.keySet());
+        imageIds.forEach(removed::remove);
+        if (!removed.isEmpty()) {
+            productImageRepository.deleteAllByIdInBatch(removed);
+        }
+
+        Map<Long, Integer> moved = new LinkedHashMap<>();
+        for (int i = 0; i < imageIds.size(); i++) {
+            if (!Integer.valueOf(i).equals(currentOrders.get(imageIds.get(i)))) {
+                moved.put(imageIds.get(i), i);
+            }
+        }
+        if (!moved.isEmpty() && !productImageContentRepository.attachAll(productId, moved)) {
+            throw new ValidationException("Image ids must refer to uploaded images not used by another product");
+        }
+    }
+
+    // Legacy path for Base64 data URLs in ProductInput.images. The strings are decoded while
+    // being streamed into the store, so no decoded byte[] copy is ever built. Images are matched
+    // to the product's current ones by content hash: a match keeps its row, so a client that
+    // resends every image on each edit only causes new images and changed positions to be
+    // written. With replace the images become the complete list, otherwise the unmatched ones
+    // are added after the current images.
+    @Transactional
+    public void saveBase64Images(Long productId, List<String> base64Images, boolean replace) {
+        List<ImageContent> contents = new ArrayList<>();
+        for (int i = 0; i < base64Images.size(); i++) {
+            contents.add(base64Content(base64Images.get(i), i));
+        }
+        List<ProductImage> incoming = describe(productId, 0, contents);
+
+        List<ProductImageSummary> current = currentImages(productId);
+        Map<String, Deque<ProductImageSummary>> currentByKey = new HashMap<>();
+        for (ProductImageSummary image : current) {
+            if (image.getStorageKey() != null) {
+                currentByKey.computeIfAbsent(image.getStorageKey(), key -> new ArrayDeque<>()).add(image);
+            }
+        }
+
+        Set<Long> kept = new HashSet<>();
+        Map<Long, Integer> moved = new LinkedHashMap<>();
+        List<ProductImage> added = new ArrayList<>();
+        List<ImageContent> addedContents = new ArrayList<>();
+        int order = replace ? 0 : current.size();
+        for (int i = 0; i < incoming.size(); i++) {
+            ProductImage image = incoming.get(i);
+            Deque<ProductImageSummary> matches = currentByKey.get(image.getStorageKey());
+            ProductImageSummary match = matches != null ? matches.poll() : null;
+            if (match == null) {
+                image.setImageOrder(order++);
+                added.add(image);
+                addedContents.add(contents.get(i));
+            } else if (replace) {
+                kept.add(match.getId());
+                if (!Integer.valueOf(order).equals(match.getImageOrder())) {
+                    moved.put(match.getId(), order);
+                }
+                order++;
+            }
+        }
+
+        if (replace) {
+            List<Long> removed = current.stream().map(ProductImageSummary::getId).filter(id -> !kept.contains(id)).toList();
+            if (!removed.isEmpty()) {
+                productImageRepository.deleteAllByIdInBatch(removed);
+            }
+        }
+        if (!moved.isEmpty()) {
+            productImageContentRepository.attachAll(productId, moved);
+        }
+        if (!added.isEmpty()) {
+            putAll(added, addedContents);
+            productImageContentRepository.insertAll(added);
+        }
+    }
+
+    // Stores the contents and adds them after the product's current images
+    @Transactional
+    void appendImages(Long productId, List<ImageContent> contents) {
+        int firstOrder = (int) productImageRepository.countByProductId(productId);
+        List<ProductImage> images = describe(productId, firstOrder, contents);
+        putAll(images, contents);
+        productImageContentRepository.insertAll(images);
+    }
+
+    // Move one batch of legacy rows from product_image.image into the ImageStore.
+    // Returns the number of rows migrated, zero once nothing is left.
+    @Transactional
+    public int migrateLegacyImages(int batchSize) {
+        List<Long> ids = productImageContentRepository.findLegacyImageIds(batchSize);
+        for (Long id : ids) {
+            ProductImageSummary image = productImageRepository.findSummaryById(id).orElseThrow();
+            Path spool = null;
+            try {
+                spool = Files.createTempFile("product-image-" + id, null);
+                MessageDigest digest = sha256();
+                try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spool), digest)) {
+                    productImageContentRepository.writeLegacyContent(id, 0, image.getSize(), out);
+                }
+                String storageKey = HexFormat.of().formatHex(digest.digest());
+                imageStore.put(storageKey, new ImageContent(new FileSystemResource(spool), image.getSize(), image.getContentType()));
+                productImageContentRepository.completeLegacyMigration(id, storageKey);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deleteQuietly(spool);
+            }
+        }
+        return ids.size();
+    }
+
+    // Delete uploads that were never attached to a product
+    @Scheduled(fixedDelayString = "${app.images.unattached-cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteUnattachedImages() {
+        int deleted = productImageRepository.deleteUnattachedCreatedBefore(LocalDateTime.now().minus(GRACE_PERIOD));
+        if (deleted > 0) {
+            logger.info("Deleted {} unattached product images", deleted);
+        }
+    }
+
+    // Delete blobs no image refers to any more. Re-storing an existing blob refreshes its
+    // last-used time, and the store only deletes a blob still unused since the cutoff, so a blob
+    // that was deduplicated against after the reference check is never collected.
+    @Scheduled(fixedDelayString = "${app.images.gc-interval:PT6H}", initialDelayString = "${app.images.gc-interval:PT6H}")
+    public void collectUnreferencedBlobs() {
+        int deleted = 0;
+        Instant cutoff = Instant.now().minus(GRACE_PERIOD);
+        try (Stream<String> keys = imageStore.keysLastUsedBefore(cutoff)) {
+            Iterator<String> iterator = keys.iterator();
+            List<String> batch = new ArrayList<>(GC_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == GC_BATCH_SIZE || !iterator.hasNext()) {
+                    Set<String> referenced = new HashSet<>(productImageRepository.findReferencedStorageKeys(batch));
+                    for (String key : batch) {
+                        if (!referenced.contains(key) && imageStore.deleteIfLastUsedBefore(key, cutoff)) {
+                            deleted++;
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} unreferenced image blobs", deleted);
+        }
+    }
+
+    // The product's image rows in display order, without their bytes
+    private List<ProductImageSummary> currentImages(Long productId) {
+        return productImageRepository.findByProductIdInOrderByImageOrderAsc(List.of(productId));
+    }
+
+    // Hash each content, sniffing its type on the way, into an image row that is not yet saved
+    private List<ProductImage> describe(Long productId, int firstOrder, List<ImageContent> contents) {
+        List<ProductImage> images = new ArrayList<>();
+        for (int i = 0; i < contents.size(); i++) {
+            ImageContent content = contents.get(i);
+            MessageDigest digest = sha256();
+            byte[] header;
+            try (InputStream in = new DigestInputStream(content.getSource().getInputStream(), digest)) {
+                header = in.readNBytes(HEADER_SIZE);
+                in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            String storageKey = HexFormat.of().formatHex(digest.digest());
+            String contentType = ImageContentTypes.detect(header);
+            images.add(new ProductImage(storageKey, productId, firstOrder + i, contentType, content.getSize()));
+        }
+        return images;
+    }
+
+    private void putAll(List<ProductImage> images, List<ImageContent> contents) {
+        for (int i = 0; i < images.size(); i++) {
+            imageStore.put(images.get(i).getStorageKey(), contents.get(i));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    // Validated Base64 text, optionally a data URL, that is decoded as it is read
+    static ImageContent base64Content(String base64String, int index) {
+        // Skip the data URL prefix if present
+        int start = base64String.startsWith("data:") ? base64String.indexOf(",") + 1 : 0;
+        long size = decodedLength(base64String, start, index);
+        return new ImageContent(() -> Base64.getDecoder().wrap(new CharSequenceInputStream(base64String, start)), size, null);
+    }
+
+    // Validates the Base64 alphabet up front and computes the decoded size without decoding
+    private static long decodedLength(String base64String, int start, int index) {
+        int length = base64String.length() - start;
+        int padding = 0;
+        while (padding < 2 && length - padding > 0 && base64String.charAt(start + length - padding - 1) == '=') {
+            padding++;
+        }
+        for (int i = start; i < start + length - padding; i++) {
+            char c = base64String.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' || c == '/';
+            if (!valid) {
+                throw new ValidationException("Invalid base64 image data at index " + index + ": illegal character '" + c + "'");
+            }
+        }
+        if (length % 4 == 1 || (padding > 0 && length % 4 != 0)) {
+            throw new ValidationException("Invalid base64 image data at index " + index + ": bad length");
+        }
+        return (long) (length - padding) * 3 / 4;
+    }
+
+    // Exposes the chars of an ASCII string as bytes without copying it
+    private static final class CharSequenceInputStream extends InputStream {
+
+        private final CharSequence chars;
+        private int position;
+
+        CharSequenceInputStream(CharSequence chars, int start) {
+            this.chars = chars;
+            this.position = start;
+        }
+
+        @Override
+        public int read() {
+            return position < chars.length() ? chars.charAt(position++) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int remaining = chars.length() - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = Math.min(len, remaining);
+            for (int i = 0; i < count; i++) {
+                b[off + i] = (byte) chars.charAt(position++);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.nmegtaskbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.nmegtaskbackend.dto.ImportError;
+import org.example.nmegtaskbackend.dto.ImportResult;
+import org.example.nmegtaskbackend.dto.ProductChange;
+import org.example.nmegtaskbackend.dto.ProductInput;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.example.nmegtaskbackend.entity.CatalogChange;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductBulkRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Streams products from CSV or NDJSON into the database. Rows are parsed and validated one at a
+// time and written in chunks, each committed in its own transaction, so memory and lock time stay
+// flat however large the upload. Invalid rows are reported and skipped. A failure part-way leaves
+// the chunks before it imported; malformed CSV quoting ends the import with the rows read so far.
+@Service
+public class ProductImportService {
+
+    private static final int CHUNK_SIZE = 5_000;
+    private static final int MAX_REPORTED_ERRORS = 1_000;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductBulkRepository productBulkRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex;
+    private final CatalogVersion catalogVersion;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogEvents catalogEvents;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImportService(CategoryRepository categoryRepository, ProductBulkRepository productBulkRepository, ObjectMapper objectMapper, ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex, CatalogVersion catalogVersion, CatalogChangeService catalogChangeService, CatalogEvents catalogEvents, TransactionTemplate transactionTemplate) {
+        this.categoryRepository = categoryRepository;
+        this.productBulkRepository = productBulkRepository;
+        this.objectMapper = objectMapper;
+        this.productTypeaheadIndex = productTypeaheadIndex;
+        this.catalogVersion = catalogVersion;
+        this.catalogChangeService = catalogChangeService;
+        this.catalogEvents = catalogEvents;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Expects a header row naming the name, description and categoryId columns, in any order;
+    // description may be omitted
+    public ImportResult importCsv(InputStream input) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            CsvRecordReader csv = new CsvRecordReader(reader);
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new ValidationException("CSV header row is missing");
+            }
+            int nameColumn = column(header, "name", true);
+            int descriptionColumn = column(header, "description", false);
+            int categoryColumn = column(header, "categoryId", true);
+
+            Import run = new Import();
+            long row = 0;
+            List<String> fields;
+            while (true) {
+                row++;
+                try {
+                    fields = csv.next();
+                } catch (IOException e) {
+                    // Malformed quoting leaves the rest of the stream unparseable
+                    run.reject(row, e.getMessage());
+                    break;
+                }
+                if (fields == null) {
+                    break;
+                }
+                if (fields.isEmpty()) {
+                    continue;
+                }
+                if (fields.size() != header.size()) {
+                    run.reject(row, "Expected " + header.size() + " fields but found " + fields.size());
+                    continue;
+                }
+                Long categoryId;
+                try {
+                    categoryId = Long.valueOf(fields.get(categoryColumn).trim());
+                } catch (NumberFormatException e) {
+                    run.reject(row, "Category ID '" + fields.get(categoryColumn) + "' is not a number");
+                    continue;
+                }
+                String description = descriptionColumn >= 0 && !fields.get(descriptionColumn).isEmpty()
+                        ? fields.get(descriptionColumn)
+                        : null;
+                run.add(row, new ProductInput(fields.get(nameColumn), description, categoryId, null));
+            }
+            return run.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // One ProductInput JSON object per line; blank lines are ignored
+    public ImportResult importNdjson(InputStream input) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Import run = new Import();
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ProductInput productInput;
+                try {
+                    productInput = objectMapper.readValue(line, ProductInput.class);
+                } catch (JsonProcessingException e) {
+                    run.reject(row, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                run.add(row, productInput);
+            }
+            return run.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int column(List<String> header, String name, boolean required) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        if (required) {
+            throw new ValidationException("CSV header must include a '" + name + "' column");
+        }
+        return -1;
+    }
+
+    // State of one import: the pending chunk, category lookups and the error report
+    private class Import {
+
+        private final Map<Long, Optional<String>> categoryNames = new HashMap<>();
+        private final List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<ImportError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void add(long row, ProductInput productInput) {
+            String error = validate(productInput);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+            Product product = new Product();
+            product.setName(productInput.getName());
+            product.setDescription(productInput.getDescription());
+            product.setCategoryId(productInput.getCategoryId());
+            chunk.add(product);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(row, message));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            return new ImportResult(imported, failed, errors);
+        }
+
+        private String validate(ProductInput productInput) {
+            if (productInput.getName() == null || productInput.getName().trim().isEmpty()) {
+                return "Product name cannot be null or empty";
+            }
+            if (productInput.getName().length() > MAX_NAME_LENGTH) {
+                return "Product name cannot be longer than " + MAX_NAME_LENGTH + " characters";
+            }
+            if (productInput.getCategoryId() == null) {
+                return "Category ID cannot be null";
+            }
+            if (categoryName(productInput.getCategoryId()).isEmpty()) {
+                return "Category not found with id: " + productInput.getCategoryId();
+            }
+            return null;
+        }
+
+        private Optional<String> categoryName(Long categoryId) {
+            return categoryNames.computeIfAbsent(categoryId, id -> categoryRepository.findById(id).map(Category::getName));
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> write());
+            imported += chunk.size();
+            chunk.clear();
+        }
+
+        private void write() {
+            productBulkRepository.assignIds(chunk);
+            productBulkRepository.insert(chunk);
+            catalogVersion.changed();
+            catalogChangeService.created(CatalogChange.PRODUCT, chunk.stream().map(Product::getId).toList());
+            // Each chunk is announced once it commits
+            catalogEvents.publishProducts(chunk.stream().map(ProductChange::created).toList());
+
+            productTypeaheadIndex.ifAvailable(index -> {
+                List<ProductSuggestion> suggestions = new ArrayList<>(chunk.size());
+                List<String> descriptions = new ArrayList<>(chunk.size());
+                for (Product product : chunk) {
+                    suggestions.add(new ProductSuggestion(product.getId(), product.getName(), product.getCategoryId(),
+                            categoryName(product.getCategoryId()).orElse(null)));
+                    descriptions.add(product.getDescription());
+                }
+                TransactionCallbacks.afterCommit(() -> {
+                    for (int i = 0; i < suggestions.size(); i++) {
+                        index.put(suggestions.get(i), descriptions.get(i));
+                    }
+                });
+            });
+        }
+    }
+}
@@ -1,32 +1,66 @@
 package org.example.nmegtaskbackend.service;
 
+import org.example.nmegtaskbackend.dto.ProductChange;
+import org.example.nmegtaskbackend.dto.ProductImageSummary;
 import org.example.nmegtaskbackend.dto.ProductInput;
+import org.example.nmegtaskbackend.dto.ProductSearchHit;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.example.nmegtaskbackend.entity.CatalogChange;
+import org.example.nmegtaskbackend.entity.Category;
 import org.example.nmegtaskbackend.entity.Product;
-import org.example.nmegtaskbackend.entity.ProductImage;
 import org.example.nmegtaskbackend.exception.ResourceNotFoundException;
 import org.example.nmegtaskbackend.exception.ValidationException;
 import org.example.nmegtaskbackend.repository.ProductImageRepository;
 import org.example.nmegtaskbackend.repository.ProductRepository;
 import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductReadRepository;
+import org.example.nmegtaskbackend.repository.ProductSearchRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ProductService {
     
+    // Larger loads go through the streaming import endpoint
+    public static final int MAX_BULK_SIZE = 1_000;
+    
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductImageRepository productImageRepository;
+    private final ProductImageService productImageService;
+    private final ProductSearchRepository productSearchRepository;
+    private final ProductReadRepository productReadRepository;
+    private final ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex;
+    private final CatalogVersion catalogVersion;
+    private final CatalogEvents catalogEvents;
+    private final CatalogChangeService catalogChangeService;
 
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, ProductImageRepository productImageRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, ProductImageRepository productImageRepository, ProductImageService productImageService, ProductSearchRepository productSearchRepository, ProductReadRepository productReadRepository, ObjectProvider<ProductTypeaheadIndex> productTypeaheadIndex, CatalogVersion catalogVersion, CatalogEvents catalogEvents, CatalogChangeService catalogChangeService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.productImageRepository = productImageRepository;
+        this.productImageService = productImageService;
+        this.productSearchRepository = productSearchRepository;
+        this.productReadRepository = productReadRepository;
+        this.productTypeaheadIndex = productTypeaheadIndex;
+        this.catalogVersion = catalogVersion;
+        this.catalogEvents = catalogEvents;
+        this.catalogChangeService = catalogChangeService;
     }
 
     public Product createProduct(ProductInput productInput) {
@@ -44,16 +78,66 @@ public class ProductService {
 
         Product savedProduct =  productRepository.save(product);
 
-        if (productInput.getImages() != null && !productInput.getImages().isEmpty()) {
-            saveProductImages(savedProduct.getId(), productInput.getImages());
-        }
+        saveProductImages(savedProduct.getId(), productInput);
+        updateTypeaheadIndex(savedProduct);
+        catalogVersion.changed();
+        catalogEvents.publishProducts(List.of(ProductChange.created(savedProduct)));
+        catalogChangeService.created(CatalogChange.PRODUCT, List.of(savedProduct.getId()));
 
         return savedProduct;
     }
     
+    // Creates all products in one transaction. Categories are checked with one query and the
+    // INSERTs are sent as JDBC batches, ids coming from the pooled sequence.
+    public List<Product> bulkCreateProducts(List<ProductInput> productInputs) {
+        if (productInputs == null || productInputs.isEmpty()) {
+            throw new ValidationException("At least one product is required");
+        }
+        if (productInputs.size() > MAX_BULK_SIZE) {
+            throw new ValidationException("At most " + MAX_BULK_SIZE + " products can be created at once");
+        }
+        for (int i = 0; i < productInputs.size(); i++) {
+            try {
+                validateProductInput(productInputs.get(i));
+            } catch (ValidationException e) {
+                throw new ValidationException("Product at index " + i + ": " + e.getMessage());
+            }
+        }
+
+        Set<Long> categoryIds = productInputs.stream().map(ProductInput::getCategoryId).collect(Collectors.toSet());
+        Set<Long> existingCategoryIds = categoryRepository.findAllById(categoryIds).stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        for (Long categoryId : categoryIds) {
+            if (!existingCategoryIds.contains(categoryId)) {
+                throw new ResourceNotFoundException("Category", categoryId);
+            }
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (ProductInput productInput : productInputs) {
+            Product product = new Product();
+            product.setName(productInput.getName());
+            product.setDescription(productInput.getDescription());
+            product.setCategoryId(productInput.getCategoryId());
+            products.add(product);
+        }
+        List<Product> savedProducts = productRepository.saveAll(products);
+
+        for (int i = 0; i < savedProducts.size(); i++) {
+            saveProductImages(savedProducts.get(i).getId(), productInputs.get(i));
+            updateTypeaheadIndex(savedProducts.get(i));
+        }
+        catalogVersion.changed();
+        catalogEvents.publishProducts(savedProducts.stream().map(ProductChange::created).toList());
+        catalogChangeService.created(CatalogChange.PRODUCT, savedProducts.stream().map(Product::getId).toList());
+        return savedProducts;
+    }
+    
+    // List queries read only the given ProductReadRepository.COLUMNS into detached products
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public Window<Product> getProducts(ScrollPosition position, int limit, Set<String> columns) {
+        return productReadRepository.scroll(columns, null, null, keysetId(position), limit);
     }
     
     @Transactional(readOnly = true)
@@ -62,20 +146,79 @@ public class ProductService {
     }
     
     @Transactional(readOnly = true)
-    public List<Product> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId);
+    public Window<Product> getProductsByCategory(Long categoryId, ScrollPosition position, int limit, Set<String> columns) {
+        return productReadRepository.scroll(columns, categoryId, null, keysetId(position), limit);
+    }
+    
+    // Get at most limit products per category for a batch of categories (DataLoader)
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByCategoryIds(Collection<Long> categoryIds, int limit) {
+        return productRepository.findFirstProductsPerCategory(categoryIds, limit);
+    }
+    
+    // Get products for a batch of change log entries (DataLoader); deleted ids are absent
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return productRepository.findAllById(ids);
     }
     
+    // Get images for a batch of products (DataLoader)
     @Transactional(readOnly = true)
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    public List<ProductImageSummary> getImagesByProductIds(Collection<Long> productIds) {
+        return productImageRepository.findByProductIdInOrderByImageOrderAsc(productIds);
     }
     
     @Transactional(readOnly = true)
-    public List<Product> searchProductsByCategoryAndName(Long categoryId, String name) {
-        return productRepository.findByCategoryIdAndNameContainingIgnoreCase(categoryId, name);
+    public Window<Product> searchProductsByName(String name, ScrollPosition position, int limit, Set<String> columns) {
+        return productReadRepository.scroll(columns, null, name, keysetId(position), limit);
+    }
+    
+    @Transactional(readOnly = true)
+    public Window<Product> searchProductsByCategoryAndName(Long categoryId, String name, ScrollPosition position, int limit, Set<String> columns) {
+        return productReadRepository.scroll(columns, categoryId, name, keysetId(position), limit);
+    }
+    
+    // Typeahead suggestions from the in-memory index; never touches the database
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        ProductTypeaheadIndex index = productTypeaheadIndex.getIfAvailable();
+        if (index == null) {
+            throw new ValidationException("Product suggestions are disabled");
+        }
+        return index.suggest(prefix, limit);
     }
     
+    // Ranked full-text search over name and description, optionally within one category.
+    // Pages are keyed on (rank, id), so the cursor stays stable while paging through hits.
+    @Transactional(readOnly = true)
+    public Window<Product> searchProducts(String query, Long categoryId, ScrollPosition position, int limit, Set<String> columns) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new ValidationException("Search query cannot be null or empty");
+        }
+
+        List<ProductSearchHit> hits = productSearchRepository.search(query.trim(), categoryId, searchCursor(position), limit + 1);
+        boolean hasNext = hits.size() > limit;
+        if (hasNext) {
+            hits = hits.subList(0, limit);
+        }
+
+        Map<Long, Product> productsById = productReadRepository.findAllById(columns, hits.stream().map(ProductSearchHit::getId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>();
+        List<ProductSearchHit> positions = new ArrayList<>();
+        for (ProductSearchHit hit : hits) {
+            // Skip products deleted between the search and the load
+            Product product = productsById.get(hit.getId());
+            if (product != null) {
+                products.add(product);
+                positions.add(hit);
+            }
+        }
+        return Window.from(products,
+                index -> ScrollPosition.forward(Map.of("rank", positions.get(index).getRank(), "id", positions.get(index).getId())),
+                hasNext);
+    }
+
     public Product updateProduct(Long id, ProductInput productInput) {
         validateProductInput(productInput);
         
@@ -88,29 +231,66 @@ public class ProductService {
         }
 
         
+        Long previousCategoryId = existingProduct.getCategoryId();
         existingProduct.setName(productInput.getName());
         existingProduct.setDescription(productInput.getDescription());
         existingProduct.setCategoryId(productInput.getCategoryId());
 
-        if (productInput.getImages() != null) {
-            // Delete existing images
-            // productImageRepository.deleteByProductId(id);
-            // Add new images
-            saveProductImages(id, productInput.getImages());
-        }
+        saveProductImages(id, productInput);
         
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        updateTypeaheadIndex(savedProduct);
+        catalogVersion.changed();
+        catalogEvents.publishProducts(List.of(ProductChange.updated(savedProduct, previousCategoryId)));
+        catalogChangeService.updated(CatalogChange.PRODUCT, List.of(id));
+        return savedProduct;
     }
     
     public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isPresent()) {
+            productRepository.delete(product.get());
+            productTypeaheadIndex.ifAvailable(index -> TransactionCallbacks.afterCommit(() -> index.remove(id)));
+            catalogVersion.changed();
+            catalogEvents.publishProducts(List.of(ProductChange.deleted(id, product.get().getCategoryId())));
+            catalogChangeService.deleted(CatalogChange.PRODUCT, List.of(id));
             return true;
         }
         return false;
     }
 
     
+    private void updateTypeaheadIndex(Product product) {
+        productTypeaheadIndex.ifAvailable(index -> {
+            String categoryName = categoryRepository.findById(product.getCategoryId()).map(Category::getName).orElse(null);
+            ProductSuggestion suggestion = new ProductSuggestion(product.getId(), product.getName(), product.getCategoryId(), categoryName);
+            String description = product.getDescription();
+            TransactionCallbacks.afterCommit(() -> index.put(suggestion, description));
+        });
+    }
+    
+    private static Long keysetId(ScrollPosition position) {
+        if (position instanceof KeysetScrollPosition keyset && keyset.isInitial()) {
+            return null;
+        }
+        if (position instanceof KeysetScrollPosition keyset && keyset.getKeys().get("id") instanceof Number id) {
+            return id.longValue();
+        }
+        throw new ValidationException("Cursor does not belong to this list");
+    }
+    
+    private static ProductSearchHit searchCursor(ScrollPosition position) {
+        if (position instanceof KeysetScrollPosition keyset && keyset.isInitial()) {
+            return null;
+        }
+        if (position instanceof KeysetScrollPosition keyset
+                && keyset.getKeys().get("rank") instanceof Number rank
+                && keyset.getKeys().get("id") instanceof Number id) {
+            return new ProductSearchHit(id.longValue(), rank.floatValue());
+        }
+        throw new ValidationException("Cursor does not belong to a searchProducts result");
+    }
+    
     // Validate product input
     private void validateProductInput(ProductInput productInput) {
         if (productInput.getName() == null || productInput.getName().trim().isEmpty()) {
@@ -122,22 +302,19 @@ public class ProductService {
         }
     }
 
-    private void saveProductImages(Long productId, List<String> base64Images) {
-        for (int i = 0; i < base64Images.size(); i++) {
-            String base64String = base64Images.get(i);
-            
-            // Clean the base64 string (remove data URL prefix if present)
-            if (base64String.startsWith("data:")) {
-                base64String = base64String.substring(base64String.indexOf(",") + 1);
-            }
-            
-            try {
-                byte[] imageData = Base64.getDecoder().decode(base64String);
-                ProductImage productImage = new ProductImage(imageData, productId, i);
-                productImageRepository.save(productImage);
-            } catch (IllegalArgumentException e) {
-                throw new ValidationException("Invalid base64 image data at index " + i + ": " + e.getMessage());
-            }
+    // imageIds (uploaded through /images) replace the product's image list; legacy Base64
+    // images replace it when imageIds is absent and are appended after them otherwise
+    private void saveProductImages(Long productId, ProductInput productInput) {
+        boolean hasImages = productInput.getImageIds() != null || (productInput.getImages() != null && !productInput.getImages().isEmpty());
+        if (hasImages) {
+            // Image rows are written over JDBC and reference the product, whose INSERT Hibernate defers
+            productRepository.flush();
+        }
+        if (productInput.getImageIds() != null) {
+            productImageService.replaceImages(productId, productInput.getImageIds());
+        }
+        if (productInput.getImages() != null && !productInput.getImages().isEmpty()) {
+            productImageService.saveBase64Images(productId, productInput.getImages(), productInput.getImageIds() == null);
         }
     }
 }
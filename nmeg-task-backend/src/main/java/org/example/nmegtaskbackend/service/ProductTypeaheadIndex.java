@@ -0,0 +1,298 @@
+package org.example.nmegtaskbackend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.example.nmegtaskbackend.repository.ProductSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// In-memory prefix index over product names, descriptions and category names for typeahead.
+// Each distinct token maps to a sorted int posting list of document ordinals; a prefix is
+// answered by unioning the postings of the token range it covers in a sorted dictionary.
+// Updates append a new document and retire the old one, and the periodic rebuild compacts
+// retired documents away and picks up changes made outside ProductService.
+@Component
+@ConditionalOnProperty(name = "app.search.typeahead.enabled", havingValue = "true")
+public class ProductTypeaheadIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductTypeaheadIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductSearchRepository productSearchRepository;
+    private final Timer rebuildTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    // Changes made while a rebuild is reading the database, replayed onto the new segment
+    private List<Consumer<Segment>> pendingChanges;
+
+    public ProductTypeaheadIndex(ProductSearchRepository productSearchRepository, MeterRegistry meterRegistry) {
+        this.productSearchRepository = productSearchRepository;
+        this.rebuildTimer = Timer.builder("search.typeahead.rebuild")
+                .description("Time taken to rebuild the typeahead index from the database")
+                .register(meterRegistry);
+        Gauge.builder("search.typeahead.memory", this, index -> index.read(Segment::estimatedBytes))
+                .description("Estimated heap used by the typeahead index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("search.typeahead.documents", this, index -> index.read(current -> current.live.cardinality()))
+                .description("Products in the typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("search.typeahead.terms", this, index -> index.read(current -> current.nameTerms.size() + current.textTerms.size()))
+                .description("Distinct tokens in the typeahead index")
+                .register(meterRegistry);
+    }
+
+    // Products where every query token prefixes a token of the name, description or category
+    // name. Products matching on name alone come first.
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return segment.suggest(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(ProductSuggestion product, String description) {
+        apply(current -> current.put(product, description));
+    }
+
+    public void remove(Long productId) {
+        apply(current -> current.remove(productId));
+    }
+
+    // Category names are indexed with each product, so a renamed category's products are put again
+    public void reindexCategory(Long categoryId) {
+        productSearchRepository.forEachProductInCategory(categoryId, this::put);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.typeahead.rebuild-interval:PT1H}",
+            initialDelayString = "${app.search.typeahead.rebuild-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try {
+            rebuildTimer.record(() -> productSearchRepository.forEachProduct(fresh::put));
+        } catch (RuntimeException e) {
+            discardPendingChanges();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            segment = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Typeahead index rebuilt with {} products", fresh.live.cardinality());
+    }
+
+    private void discardPendingChanges() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(segment);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<Segment, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(segment);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    // One generation of the index. Not thread-safe; guarded by the enclosing lock.
+    private static final class Segment {
+
+        // Rough JVM overheads used for the memory estimate
+        private static final int TERM_OVERHEAD = 96;
+        private static final int DOCUMENT_OVERHEAD = 120;
+
+        private final TreeMap<String, Postings> nameTerms = new TreeMap<>();
+        private final TreeMap<String, Postings> textTerms = new TreeMap<>();
+        private final Map<Long, Integer> ordinalsByProductId = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private ProductSuggestion[] documents = new ProductSuggestion[1024];
+        private int size;
+        private long termChars;
+        private long postingCapacity;
+
+        void put(ProductSuggestion product, String description) {
+            remove(product.getId());
+            int ordinal = size++;
+            if (ordinal == documents.length) {
+                documents = Arrays.copyOf(documents, documents.length * 2);
+            }
+            documents[ordinal] = product;
+            ordinalsByProductId.put(product.getId(), ordinal);
+            live.set(ordinal);
+
+            for (String token : tokenize(product.getName())) {
+                addPosting(nameTerms, token, ordinal);
+            }
+            for (String token : tokenize(description)) {
+                addPosting(textTerms, token, ordinal);
+            }
+            for (String token : tokenize(product.getCategoryName())) {
+                addPosting(textTerms, token, ordinal);
+            }
+        }
+
+        void remove(Long productId) {
+            Integer ordinal = ordinalsByProductId.remove(productId);
+            if (ordinal != null) {
+                live.clear(ordinal);
+                documents[ordinal] = null;
+            }
+        }
+
+        List<ProductSuggestion> suggest(List<String> tokens, int limit) {
+            BitSet matches = null;
+            BitSet nameMatches = null;
+            for (String token : tokens) {
+                BitSet inName = union(nameTerms, token);
+                BitSet anywhere = union(textTerms, token);
+                anywhere.or(inName);
+                if (matches == null) {
+                    matches = anywhere;
+                    nameMatches = inName;
+                } else {
+                    matches.and(anywhere);
+                    nameMatches.and(inName);
+                }
+            }
+            matches.and(live);
+            nameMatches.and(matches);
+            matches.andNot(nameMatches);
+
+            List<ProductSuggestion> suggestions = new ArrayList<>(limit);
+            for (BitSet tier : List.of(nameMatches, matches)) {
+                for (int ordinal = tier.nextSetBit(0); ordinal >= 0 && suggestions.size() < limit; ordinal = tier.nextSetBit(ordinal + 1)) {
+                    suggestions.add(documents[ordinal]);
+                }
+            }
+            return suggestions;
+        }
+
+        long estimatedBytes() {
+            long terms = (long) (nameTerms.size() + textTerms.size()) * TERM_OVERHEAD + termChars;
+            long documentBytes = (long) documents.length * 8 + (long) ordinalsByProductId.size() * DOCUMENT_OVERHEAD + live.size() / 8;
+            return terms + postingCapacity * Integer.BYTES + documentBytes;
+        }
+
+        private void addPosting(TreeMap<String, Postings> terms, String token, int ordinal) {
+            Postings postings = terms.get(token);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(token, postings);
+                termChars += token.length();
+                postingCapacity += postings.ordinals.length;
+            }
+            postingCapacity += postings.add(ordinal);
+        }
+
+        // Documents containing any token that starts with prefix
+        private static BitSet union(TreeMap<String, Postings> terms, String prefix) {
+            BitSet result = new BitSet();
+            NavigableMap<String, Postings> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+            for (Postings postings : range.values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    result.set(postings.ordinals[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+    // Growable list of ascending document ordinals
+    private static final class Postings {
+
+        private int[] ordinals = new int[2];
+        private int size;
+
+        // Returns the number of slots the backing array grew by
+        int add(int ordinal) {
+            // Ordinals only increase, so a repeated token in one document is always the last entry
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return 0;
+            }
+            int grown = 0;
+            if (size == ordinals.length) {
+                grown = ordinals.length;
+                ordinals = Arrays.copyOf(ordinals, ordinals.length * 2);
+            }
+            ordinals[size++] = ordinal;
+            return grown;
+        }
+    }
+}
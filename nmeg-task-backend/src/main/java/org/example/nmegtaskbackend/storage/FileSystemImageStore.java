@@ -0,0 +1,131 @@
+package org.example.nmegtaskbackend.storage;
+
+import org.example.nmegtaskbackend.dto.ImageContent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Stores each blob as a file named by its key, fanned out over two directory levels
+// (ab/cd/abcd...) to keep directories small
+@Component
+@ConditionalOnProperty(name = "app.images.store", havingValue = "filesystem")
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final Path root;
+    private final Path tempDirectory;
+
+    public FileSystemImageStore(@Value("${app.images.filesystem.root}") Path root) throws IOException {
+        this.root = root.toAbsolutePath();
+        this.tempDirectory = this.root.resolve(TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+    }
+
+    @Override
+    public void put(String key, ImageContent content) {
+        Path path = path(key);
+        try {
+            if (Files.exists(path)) {
+                Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+                return;
+            }
+            // Write to a temp file first so readers never observe a partial blob
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(tempDirectory, key, null);
+            try (InputStream in = content.getSource().getInputStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void read(String key, long offset, long length, OutputStream out) {
+        try (FileChannel channel = FileChannel.open(path(key), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(path(key));
+    }
+
+    // The files cannot see product_image, so the caller checks references; the last-used time is
+    // checked again right before deleting
+    @Override
+    public boolean deleteIfLastUsedBefore(String key, Instant cutoff) {
+        Path path = path(key);
+        try {
+            return lastModified(path).isBefore(cutoff) && Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Stream<String> keysLastUsedBefore(Instant cutoff) {
+        try {
+            return Files.walk(root)
+                    .filter(path -> !path.startsWith(tempDirectory))
+                    .filter(path -> KEY_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .filter(path -> lastModified(path).isBefore(cutoff))
+                    .map(path -> path.getFileName().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path path(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image storage key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (NoSuchFileException e) {
+            // Deleted while walking; never report it as collectable
+            return Instant.MAX;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.nmegtaskbackend.storage;
+
+import org.example.nmegtaskbackend.dto.ImageContent;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Content-addressed storage for image bytes. Keys are the lowercase hex SHA-256 of the
+// content, so storing the same image twice keeps a single copy.
+public interface ImageStore {
+
+    // Store the content under its key. If the key already exists only its last-used time is refreshed,
+    // which keeps a blob that was just referenced again out of reach of garbage collection.
+    void put(String key, ImageContent content);
+
+    // Copy bytes [offset, offset + length) of the blob to the output stream
+    void read(String key, long offset, long length, OutputStream out);
+
+    // Local file backing the blob, for stores that can hand it to the container for zero-copy sending
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    // Delete the blob unless it was stored or refreshed since the cutoff, or, where the store can
+    // tell, an image still refers to it. Returns whether it was deleted.
+    boolean deleteIfLastUsedBefore(String key, Instant cutoff);
+
+    // Keys not stored or refreshed since the cutoff; the caller must close the stream
+    Stream<String> keysLastUsedBefore(Instant cutoff);
+}
@@ -0,0 +1,83 @@
+package org.example.nmegtaskbackend.storage;
+
+import org.example.nmegtaskbackend.dto.ImageContent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+// Keeps blobs in the image_blob table, read and written over plain JDBC
+@Component
+@ConditionalOnProperty(name = "app.images.store", havingValue = "postgres", matchIfMissing = true)
+public class PostgresImageStore implements ImageStore {
+
+    // Upper bound on the bytes the driver buffers for a single read
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresImageStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void put(String key, ImageContent content) {
+        int touched = jdbcTemplate.update("UPDATE image_blob SET last_used_at = CURRENT_TIMESTAMP WHERE storage_key = ?", key);
+        if (touched > 0) {
+            return;
+        }
+        try (InputStream in = content.getSource().getInputStream()) {
+            // A concurrent upload of the same bytes may win the race; its row is identical
+            jdbcTemplate.update(
+                    "INSERT INTO image_blob (storage_key, data, size, last_used_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP) ON CONFLICT (storage_key) DO NOTHING",
+                    ps -> {
+                        ps.setString(1, key);
+                        ps.setBinaryStream(2, in, content.getSize());
+                        ps.setLong(3, content.getSize());
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // pgjdbc buffers a whole bytea value per read, so large blobs are fetched in substring() chunks
+    @Override
+    public void read(String key, long offset, long length, OutputStream out) {
+        long end = offset + length;
+        for (long position = offset; position < end; position += CHUNK_SIZE) {
+            long chunkLength = Math.min(CHUNK_SIZE, end - position);
+            jdbcTemplate.query("SELECT substring(data FROM ? FOR ?) FROM image_blob WHERE storage_key = ?",
+                    rs -> {
+                        try (InputStream in = rs.getBinaryStream(1)) {
+                            in.transferTo(out);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    position + 1, chunkLength, key);
+        }
+    }
+
+    // One statement, so it cannot interleave with an upload: put() refreshes last_used_at inside the
+    // uploading transaction, and the DELETE waits for that row lock, then sees the new time
+    @Override
+    public boolean deleteIfLastUsedBefore(String key, Instant cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM image_blob WHERE storage_key = ? AND last_used_at < ? AND NOT EXISTS (SELECT 1 FROM product_image WHERE storage_key = ?)",
+                key, Timestamp.from(cutoff), key) > 0;
+    }
+
+    @Override
+    public Stream<String> keysLastUsedBefore(Instant cutoff) {
+        return jdbcTemplate.queryForStream("SELECT storage_key FROM image_blob WHERE last_used_at < ?",
+                (rs, rowNum) -> rs.getString(1),
+                Timestamp.from(cutoff));
+    }
+}
@@ -0,0 +1,7 @@
+-- V10__Index_products_by_category_and_id.sql
+-- Category.products and productsByCategory read a category's products in id order; with id in
+-- the index those reads need no sort
+CREATE INDEX idx_product_category_id_id ON product(category_id, id);
+
+-- The new index serves every lookup by category_id alone
+DROP INDEX IF EXISTS idx_product_category_id;
@@ -0,0 +1,18 @@
+-- V4__Add_product_image_metadata.sql
+-- Metadata served alongside image URLs so clients never need the bytes in the GraphQL payload
+ALTER TABLE product_image ADD COLUMN content_type VARCHAR(100);
+ALTER TABLE product_image ADD COLUMN size BIGINT;
+ALTER TABLE product_image ADD COLUMN created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE product_image
+SET size = octet_length(image),
+    content_type = CASE
+        WHEN substring(image FROM 1 FOR 3) = '\xffd8ff'::bytea THEN 'image/jpeg'
+        WHEN substring(image FROM 1 FOR 8) = '\x89504e470d0a1a0a'::bytea THEN 'image/png'
+        WHEN substring(image FROM 1 FOR 4) = '\x47494638'::bytea THEN 'image/gif'
+        WHEN substring(image FROM 9 FOR 4) = '\x57454250'::bytea THEN 'image/webp'
+        ELSE 'application/octet-stream'
+    END;
+
+ALTER TABLE product_image ALTER COLUMN content_type SET NOT NULL;
+ALTER TABLE product_image ALTER COLUMN size SET NOT NULL;
@@ -0,0 +1,5 @@
+-- V5__Allow_unattached_product_images.sql
+-- Images are uploaded before the product that references them is saved
+ALTER TABLE product_image ALTER COLUMN product_id DROP NOT NULL;
+
+CREATE INDEX idx_product_image_unattached ON product_image(created_at) WHERE product_id IS NULL;
@@ -0,0 +1,18 @@
+-- V6__Create_image_blob_table.sql
+-- Image bytes move behind the ImageStore abstraction; product_image keeps metadata and a storage key
+CREATE TABLE image_blob (
+    storage_key VARCHAR(64) PRIMARY KEY,
+    data BYTEA NOT NULL,
+    size BIGINT NOT NULL,
+    last_used_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_image_blob_last_used_at ON image_blob(last_used_at);
+
+ALTER TABLE product_image ADD COLUMN storage_key VARCHAR(64);
+
+-- Legacy rows keep their bytes in product_image.image until ImageStorageMigrationJob moves them
+ALTER TABLE product_image ALTER COLUMN image DROP NOT NULL;
+
+CREATE INDEX idx_product_image_storage_key ON product_image(storage_key);
+CREATE INDEX idx_product_image_legacy ON product_image(id) WHERE storage_key IS NULL;
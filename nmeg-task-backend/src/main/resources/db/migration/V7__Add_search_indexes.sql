@@ -0,0 +1,19 @@
+-- V7__Add_search_indexes.sql
+-- Index-assisted substring and full-text search over product and category names
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The derived *ContainingIgnoreCase queries compile to upper(name) LIKE upper(?), so the
+-- trigram indexes are built on that expression
+CREATE INDEX idx_product_name_trgm ON product USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX idx_category_name_trgm ON category USING gin (upper(name) gin_trgm_ops);
+
+-- Weighted search document: matches in the name rank above matches in the description
+ALTER TABLE product ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_product_search_vector ON product USING gin (search_vector);
+
+-- A B-tree over free text serves no query and only slows down writes
+DROP INDEX IF EXISTS idx_product_description;
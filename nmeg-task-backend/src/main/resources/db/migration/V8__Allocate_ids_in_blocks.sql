@@ -0,0 +1,6 @@
+-- V8__Allocate_ids_in_blocks.sql
+-- Product and category ids are allocated by Hibernate in blocks of 50 (pooled-lo: each nextval
+-- reserves [value, value + 49]), which lets inserts be JDBC-batched instead of returning one
+-- identity per round trip. Inserts that still rely on the column default simply take a whole block.
+ALTER SEQUENCE product_id_seq INCREMENT BY 50;
+ALTER SEQUENCE category_id_seq INCREMENT BY 50;
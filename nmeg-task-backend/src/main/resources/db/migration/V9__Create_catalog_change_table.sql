@@ -0,0 +1,27 @@
+-- V9__Create_catalog_change_table.sql
+-- Change log behind catalogChangesSince: the latest change to each category and product, deletes
+-- kept as tombstones. Versions are taken from catalog_change_counter, whose row stays locked until
+-- the writing transaction commits, so they grow in commit order.
+CREATE TABLE catalog_change_counter (
+    id SMALLINT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+CREATE TABLE catalog_change (
+    version BIGINT PRIMARY KEY,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_catalog_change_entity UNIQUE (entity_type, entity_id)
+);
+
+-- Existing rows are logged as created, categories first, so a mirror can start from version 0
+INSERT INTO catalog_change (version, entity_type, entity_id, deleted)
+SELECT ROW_NUMBER() OVER (ORDER BY id), 'CATEGORY', id, FALSE FROM category;
+
+INSERT INTO catalog_change (version, entity_type, entity_id, deleted)
+SELECT (SELECT COUNT(*) FROM category) + ROW_NUMBER() OVER (ORDER BY id), 'PRODUCT', id, FALSE FROM product;
+
+INSERT INTO catalog_change_counter (id, version)
+VALUES (1, (SELECT COUNT(*) FROM category) + (SELECT COUNT(*) FROM product));
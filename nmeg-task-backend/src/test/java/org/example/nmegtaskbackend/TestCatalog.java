@@ -0,0 +1,59 @@
+package org.example.nmegtaskbackend;
+
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.entity.ProductImage;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductImageRepository;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Seeds a shared catalog once per application context for the "test" profile
+@Component
+public class TestCatalog {
+
+    public static final int CATEGORY_COUNT = 50;
+    public static final int PRODUCT_COUNT = 1_000;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+
+    public TestCatalog(CategoryRepository categoryRepository, ProductRepository productRepository, ProductImageRepository productImageRepository) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+    }
+
+    public synchronized void seed() {
+        if (categoryRepository.count() > 0) {
+            return;
+        }
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            categories.add(new Category("Category " + i, LocalDateTime.now().minusDays(1), null));
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setCategoryId(categories.get(i % CATEGORY_COUNT).getId());
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+
+        List<ProductImage> images = new ArrayList<>();
+        for (Product product : products) {
+            images.add(new ProductImage("0".repeat(64), product.getId(), 0, "image/png", 3L));
+        }
+        productImageRepository.saveAll(images);
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A limit of two with half for the standard lane: one standard permit held by the test leaves
+// room for priority operations only
+@SpringBootTest(properties = {
+        "app.graphql.admission.enabled=true",
+        "app.graphql.admission.initial-limit=2",
+        "app.graphql.admission.min-limit=2",
+        "app.graphql.admission.max-limit=2",
+        "app.graphql.admission.standard-share=0.5",
+        "app.graphql.admission.latency-threshold=PT1M"
+})
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class AdmissionControlTests {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AdmissionController admissionController;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void standardLaneIsShedWhilePriorityLaneIsServed() {
+        Long productId = productRepository.findAll().get(0).getId();
+        assertThat(admissionController.tryAcquire(AdmissionController.Lane.STANDARD)).isTrue();
+        try {
+            graphQlTester.document("{ products(first: 5) { edges { node { id } } } }")
+                    .execute()
+                    .errors()
+                    .satisfy(errors -> assertThat(errors).singleElement().satisfies(error -> {
+                        assertThat(error.getErrorType().toString()).isEqualTo("OVERLOADED");
+                        assertThat(error.getExtensions()).isEqualTo(Map.of("retryable", true));
+                    }));
+
+            graphQlTester.document("query($id: ID!) { product(id: $id) { id } }")
+                    .variable("id", productId)
+                    .execute()
+                    .path("product.id").entity(String.class).isEqualTo(productId.toString());
+            graphQlTester.document("mutation($id: ID!) { deleteProduct(id: $id) }")
+                    .variable("id", productId)
+                    .execute()
+                    .errors().verify();
+        } finally {
+            admissionController.release(null, 0);
+        }
+
+        graphQlTester.document("{ products(first: 5) { edges { node { id } } } }")
+                .execute()
+                .path("products.edges").entityList(Object.class).hasSize(5);
+        assertThat(admissionController.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitBacksOffOnSlowOperationsAndGrowsWhileInUse() {
+        AdmissionController controller = new AdmissionController(10, 4, 12, Duration.ofMillis(100), 2.0, 0.5, 0.75, new SimpleMeterRegistry());
+        run(controller, "products", TimeUnit.MILLISECONDS.toNanos(200));
+        run(controller, "searchProducts", TimeUnit.SECONDS.toNanos(1));
+
+        // Slow operations are judged against their own kind, and mutations not at all
+        run(controller, "searchProducts", TimeUnit.SECONDS.toNanos(1));
+        run(controller, null, TimeUnit.SECONDS.toNanos(10));
+        assertThat(controller.getLimit()).isEqualTo(10);
+
+        run(controller, "products", TimeUnit.SECONDS.toNanos(1));
+        assertThat(controller.getLimit()).isEqualTo(5);
+        run(controller, "products", TimeUnit.SECONDS.toNanos(1));
+        assertThat(controller.getLimit()).isEqualTo(4);
+
+        // Fast operations only raise a limit that is at least half used
+        run(controller, "products", 0);
+        assertThat(controller.getLimit()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(controller.tryAcquire(AdmissionController.Lane.PRIORITY)).isTrue();
+        }
+        assertThat(controller.tryAcquire(AdmissionController.Lane.PRIORITY)).isFalse();
+        controller.release("products", 0);
+        assertThat(controller.getLimit()).isEqualTo(5);
+
+        // Three in flight: the standard lane's three-quarters of five is full, the priority lane is not
+        assertThat(controller.tryAcquire(AdmissionController.Lane.STANDARD)).isFalse();
+        assertThat(controller.tryAcquire(AdmissionController.Lane.PRIORITY)).isTrue();
+    }
+
+    private static void run(AdmissionController controller, String kind, long latencyNanos) {
+        assertThat(controller.tryAcquire(AdmissionController.Lane.PRIORITY)).isTrue();
+        controller.release(kind, latencyNanos);
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.nmegtaskbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.example.nmegtaskbackend.service.CategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Both "replicas" are the primary's in-memory database under another pool, so which one served a
+// read shows only in the datasource.read-only.connections counters; replica_lag stands in for
+// the PostgreSQL lag query
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTests.URL,
+        "app.datasource.replicas.enabled=true",
+        "app.datasource.replicas.urls=" + ReplicaRoutingTests.URL + "," + ReplicaRoutingTests.URL,
+        "app.datasource.replicas.lag-query=SELECT seconds FROM replica_lag",
+        "app.datasource.replicas.lag-check-interval=PT1H"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class ReplicaRoutingTests {
+
+    static final String URL = "jdbc:h2:mem:nmeg_task_replica_test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String CATEGORIES = "{\"query\": \"{ categories(first: 5) { edges { node { id name } } } }\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ReplicaPools replicaPools;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        setLag(0);
+    }
+
+    @Test
+    void readOnlyTransactionsAlternateBetweenReplicas() {
+        Map<String, Double> before = reads();
+        for (int i = 0; i < 4; i++) {
+            categoryService.getCategories(ScrollPosition.keyset(), 5);
+        }
+
+        Map<String, Double> after = reads();
+        assertThat(after.get("replica-1") - before.get("replica-1")).isEqualTo(2);
+        assertThat(after.get("replica-2") - before.get("replica-2")).isEqualTo(2);
+        assertThat(after.get("primary")).isEqualTo(before.get("primary"));
+    }
+
+    @Test
+    void laggingReplicasAreSkipped() {
+        setLag(60);
+        Map<String, Double> before = reads();
+        categoryService.getCategories(ScrollPosition.keyset(), 5);
+
+        Map<String, Double> after = reads();
+        assertThat(after.get("primary") - before.get("primary")).isEqualTo(1);
+        assertThat(after.get("replica-1")).isEqualTo(before.get("replica-1"));
+        assertThat(after.get("replica-2")).isEqualTo(before.get("replica-2"));
+    }
+
+    @Test
+    void writesKeepOnlyTheWritersReadsOnThePrimary() throws Exception {
+        String cookie = graphQl(post("/graphql").content("{\"query\": \"mutation { createCategory(input: {name: \\\"Sticky\\\"}) { id name } }\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, startsWith(ReplicaRoutingConfig.STICKY_COOKIE + "=")))
+                .andReturn().getResponse().getCookie(ReplicaRoutingConfig.STICKY_COOKIE).getValue();
+
+        // The writer reads from the primary, which it may have written through another instance
+        Map<String, Double> before = reads();
+        graphQl(post("/graphql").content(CATEGORIES).cookie(new Cookie(ReplicaRoutingConfig.STICKY_COOKIE, cookie)))
+                .andExpect(status().isOk());
+        assertThat(reads().get("primary")).isGreaterThan(before.get("primary"));
+
+        // Everyone else keeps reading from the replicas
+        before = reads();
+        graphQl(post("/graphql").content(CATEGORIES)).andExpect(status().isOk());
+        categoryService.getCategories(ScrollPosition.keyset(), 5);
+        assertThat(reads().get("primary")).isEqualTo(before.get("primary"));
+    }
+
+    @Test
+    void getResponsesReadFromAReplicaAreNotCached() throws Exception {
+        graphQl(get("/graphql").param("query", "{ categories(first: 5) { edges { node { id name } } } }"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        setLag(60);
+        graphQl(get("/graphql").param("query", "{ categories(first: 5) { edges { node { id name } } } }"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    private void setLag(double seconds) {
+        jdbcTemplate.update("DELETE FROM replica_lag");
+        jdbcTemplate.update("INSERT INTO replica_lag (seconds) VALUES (?)", seconds);
+        replicaPools.checkLag();
+    }
+
+    private Map<String, Double> reads() {
+        return Map.of("primary", reads("primary"), "replica-1", reads("replica-1"), "replica-2", reads("replica-2"));
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("datasource.read-only.connections").tag("target", target).counter().count();
+    }
+
+    private ResultActions graphQl(MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON));
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.nmegtaskbackend.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class BatchLoadingTests {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @Test
+    void productsQueryUsesFixedNumberOfStatements() {
+        Statistics statistics = statistics();
+
+        graphQlTester.document("""
+                        query {
+                          products(first: 100) {
+                            edges {
+                              node {
+                                id
+                                name
+                                category { id name }
+                                images { id url }
+                              }
+                            }
+                          }
+                        }
+                        """)
+                .execute()
+                .path("products.edges").entityList(Object.class).hasSize(100);
+
+        // products + categories IN (...) + images IN (...)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void productsQueryReusesCachedCategories() {
+        String query = """
+                query {
+                  products(first: 100) {
+                    edges { node { id category { id name } } }
+                  }
+                }
+                """;
+        graphQlTester.document(query).execute();
+        Statistics statistics = statistics();
+
+        graphQlTester.document(query).execute()
+                .path("products.edges[0].node.category.name").hasValue();
+
+        // products only; every category is already cached
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void productsQueryDoesNotHydrateEntities() {
+        Statistics statistics = statistics();
+
+        graphQlTester.document("{ products(first: 100) { edges { node { id name description } } } }")
+                .execute()
+                .path("products.edges[0].node.description").hasValue();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void categoriesQueryUsesFixedNumberOfStatements() {
+        Statistics statistics = statistics();
+
+        graphQlTester.document("""
+                        query {
+                          categories(first: 100) {
+                            edges {
+                              node {
+                                id
+                                products { id }
+                              }
+                            }
+                          }
+                        }
+                        """)
+                .execute()
+                .path("categories.edges").entityList(Object.class).hasSize(TestCatalog.CATEGORY_COUNT)
+                .path("categories.edges[0].node.products").entityList(Object.class)
+                .hasSize(TestCatalog.PRODUCT_COUNT / TestCatalog.CATEGORY_COUNT);
+
+        // categories + products IN (...)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
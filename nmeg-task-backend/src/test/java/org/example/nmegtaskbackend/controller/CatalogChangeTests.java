@@ -0,0 +1,202 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.example.nmegtaskbackend.TestCatalog;
+import org.example.nmegtaskbackend.dto.CategoryInput;
+import org.example.nmegtaskbackend.dto.ProductInput;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.service.CategoryService;
+import org.example.nmegtaskbackend.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class CatalogChangeTests {
+
+    private static final String CHANGES = """
+            query($version: ID, $limit: Int) {
+              catalogChangesSince(version: $version, limit: $limit) {
+                version
+                hasMore
+                changes {
+                  entityType
+                  entityId
+                  deleted
+                  category { name }
+                  product { name category { name } }
+                }
+              }
+            }
+            """;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void returnsLatestChangePerEntitySinceVersion() {
+        String version = latestVersion();
+
+        Category category = categoryService.createCategory(category("Delta"));
+        Product kept = productService.createProduct(product("Kept", category.getId()));
+        Product removed = productService.createProduct(product("Removed", category.getId()));
+        productService.updateProduct(kept.getId(), product("Kept, renamed", category.getId()));
+        productService.updateProduct(kept.getId(), product("Kept, renamed twice", category.getId()));
+        productService.deleteProduct(removed.getId());
+
+        GraphQlTester.Response response = changes(version, null);
+        response.path("catalogChangesSince.hasMore").entity(Boolean.class).isEqualTo(false);
+        response.path("catalogChangesSince.changes").entityList(Map.class).containsExactly(
+                change("CATEGORY", category.getId(), false, Map.of("name", "Delta"), null),
+                change("PRODUCT", kept.getId(), false, null, Map.of("name", "Kept, renamed twice", "category", Map.of("name", "Delta"))),
+                change("PRODUCT", removed.getId(), true, null, null));
+
+        // Nothing new after the returned version
+        String next = response.path("catalogChangesSince.version").entity(String.class).get();
+        changes(next, null).path("catalogChangesSince.changes").entityList(Map.class).hasSize(0);
+    }
+
+    @Test
+    void pagesWithLimit() {
+        String version = latestVersion();
+        Category category = categoryService.createCategory(category("Paged"));
+        for (int i = 0; i < 5; i++) {
+            productService.createProduct(product("Paged " + i, category.getId()));
+        }
+
+        GraphQlTester.Response first = changes(version, 4);
+        first.path("catalogChangesSince.hasMore").entity(Boolean.class).isEqualTo(true);
+        first.path("catalogChangesSince.changes").entityList(Map.class).hasSize(4);
+
+        GraphQlTester.Response second = changes(first.path("catalogChangesSince.version").entity(String.class).get(), 4);
+        second.path("catalogChangesSince.hasMore").entity(Boolean.class).isEqualTo(false);
+        second.path("catalogChangesSince.changes[*].product.name").entityList(String.class).containsExactly("Paged 3", "Paged 4");
+    }
+
+    @Test
+    void deletingCategoryLeavesTombstonesForItsProducts() {
+        Category category = categoryService.createCategory(category("Doomed"));
+        Product first = productService.createProduct(product("Doomed 1", category.getId()));
+        Product second = productService.createProduct(product("Doomed 2", category.getId()));
+        String version = latestVersion();
+
+        categoryService.deleteCategory(category.getId());
+
+        changes(version, null).path("catalogChangesSince.changes").entityList(Map.class).containsExactly(
+                change("PRODUCT", first.getId(), true, null, null),
+                change("PRODUCT", second.getId(), true, null, null),
+                change("CATEGORY", category.getId(), true, null, null));
+    }
+
+    // The counter row is only locked while committing, so a long writing transaction does not hold
+    // up other writers, and its changes come after theirs, in commit order
+    @Test
+    void openWritingTransactionDoesNotBlockOtherWriters() throws Exception {
+        Category category = categoryService.createCategory(category("Concurrent"));
+        String version = latestVersion();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Product> slow = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Product product = productService.createProduct(product("Slow", category.getId()));
+            written.countDown();
+            await(release);
+            return product;
+        }));
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        Product fast;
+        try {
+            fast = CompletableFuture.supplyAsync(() -> productService.createProduct(product("Fast", category.getId())))
+                    .get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+        Product slowProduct = slow.get(5, TimeUnit.SECONDS);
+
+        changes(version, null).path("catalogChangesSince.changes[*].entityId").entityList(String.class)
+                .containsExactly(fast.getId().toString(), slowProduct.getId().toString());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String latestVersion() {
+        String version = null;
+        boolean hasMore = true;
+        while (hasMore) {
+            GraphQlTester.Response response = changes(version, CatalogChangeController.MAX_CHANGES);
+            version = response.path("catalogChangesSince.version").entity(String.class).get();
+            hasMore = response.path("catalogChangesSince.hasMore").entity(Boolean.class).get();
+        }
+        return version;
+    }
+
+    private GraphQlTester.Response changes(String version, Integer limit) {
+        return graphQlTester.document(CHANGES)
+                .variable("version", version)
+                .variable("limit", limit)
+                .execute();
+    }
+
+    private static Map<String, Object> change(String entityType, Long entityId, boolean deleted, Object category, Object product) {
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("entityType", entityType);
+        change.put("entityId", entityId.toString());
+        change.put("deleted", deleted);
+        change.put("category", category);
+        change.put("product", product);
+        return change;
+    }
+
+    private static CategoryInput category(String name) {
+        CategoryInput input = new CategoryInput();
+        input.setName(name);
+        return input;
+    }
+
+    private static ProductInput product(String name, Long categoryId) {
+        ProductInput input = new ProductInput();
+        input.setName(name);
+        input.setCategoryId(categoryId);
+        return input;
+    }
+}
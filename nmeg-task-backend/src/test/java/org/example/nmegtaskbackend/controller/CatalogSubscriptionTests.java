@@ -0,0 +1,243 @@
+package org.example.nmegtaskbackend.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.example.nmegtaskbackend.dto.CategoryInput;
+import org.example.nmegtaskbackend.dto.ProductInput;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.service.CategoryService;
+import org.example.nmegtaskbackend.service.ProductImportService;
+import org.example.nmegtaskbackend.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.execution.SubscriptionPublisherException;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.graphql.subscriptions.buffer-size=100")
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class CatalogSubscriptionTests {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void productChangesAreDeliveredForTheCategory() throws Exception {
+        List<Category> categories = categoryRepository.findAll();
+        Category watched = categories.get(0);
+        Category other = categories.get(1);
+
+        CompletableFuture<List<Map<String, Object>>> events = subscribe("""
+                subscription($categoryId: ID) {
+                  productChanged(categoryId: $categoryId) {
+                    type
+                    id
+                    categoryId
+                    product { name category { name } }
+                  }
+                }
+                """, watched.getId(), "productChanged", 3);
+
+        productService.createProduct(input("Ignored", other.getId()));
+        Product created = productService.createProduct(input("Watched", watched.getId()));
+        productService.updateProduct(created.getId(), input("Renamed", watched.getId()));
+        productService.deleteProduct(created.getId());
+
+        List<Map<String, Object>> received = events.get(5, TimeUnit.SECONDS);
+        assertThat(received).extracting(event -> event.get("type")).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(received).extracting(event -> event.get("id")).containsOnly(created.getId().toString());
+        assertThat(received.get(0).get("product")).isEqualTo(Map.of("name", "Watched", "category", Map.of("name", watched.getName())));
+        assertThat(received.get(1).get("product")).isEqualTo(Map.of("name", "Renamed", "category", Map.of("name", watched.getName())));
+        assertThat(received.get(2).get("product")).isNull();
+        assertThat(received.get(2).get("categoryId")).isEqualTo(watched.getId().toString());
+    }
+
+    @Test
+    void productsLeavingTheCategoryAreDelivered() throws Exception {
+        CategoryInput categoryInput = new CategoryInput();
+        categoryInput.setName("Leaving");
+        Category leaving = categoryService.createCategory(categoryInput);
+        Category other = categoryRepository.findAll().get(0);
+        Product moved = productService.createProduct(input("Moved", leaving.getId()));
+        Product deleted = productService.createProduct(input("Deleted with its category", leaving.getId()));
+
+        CompletableFuture<List<Map<String, Object>>> events = subscribe("""
+                subscription($categoryId: ID) {
+                  productChanged(categoryId: $categoryId) { type id categoryId previousCategoryId }
+                }
+                """, leaving.getId(), "productChanged", 2);
+
+        productService.updateProduct(moved.getId(), input("Moved", other.getId()));
+        categoryService.deleteCategory(leaving.getId());
+
+        Map<String, Object> deletedEvent = new HashMap<>();
+        deletedEvent.put("type", "DELETED");
+        deletedEvent.put("id", deleted.getId().toString());
+        deletedEvent.put("categoryId", leaving.getId().toString());
+        deletedEvent.put("previousCategoryId", null);
+        assertThat(events.get(5, TimeUnit.SECONDS)).containsExactly(
+                Map.of("type", "UPDATED", "id", moved.getId().toString(), "categoryId", other.getId().toString(),
+                        "previousCategoryId", leaving.getId().toString()),
+                deletedEvent);
+    }
+
+    @Test
+    void importedProductsAreDelivered() throws Exception {
+        Long categoryId = categoryRepository.findAll().get(0).getId();
+        CompletableFuture<List<Map<String, Object>>> events = subscribe("""
+                subscription($categoryId: ID) {
+                  productChanged(categoryId: $categoryId) { type product { name } }
+                }
+                """, categoryId, "productChanged", 2);
+
+        String csv = "name,categoryId\nImported lamp," + categoryId + "\nImported chair," + categoryId + "\n";
+        productImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(events.get(5, TimeUnit.SECONDS)).containsExactly(
+                Map.of("type", "CREATED", "product", Map.of("name", "Imported lamp")),
+                Map.of("type", "CREATED", "product", Map.of("name", "Imported chair")));
+    }
+
+    @Test
+    void categoryChangesAreDelivered() throws Exception {
+        CompletableFuture<List<Map<String, Object>>> events = subscribe(
+                "subscription { categoryChanged { type id category { name } } }", null, "categoryChanged", 3);
+
+        CategoryInput input = new CategoryInput();
+        input.setName("Subscribed");
+        Category created = categoryService.createCategory(input);
+        input.setName("Subscribed and renamed");
+        categoryService.updateCategory(created.getId(), input);
+        categoryService.deleteCategory(created.getId());
+
+        assertThat(events.get(5, TimeUnit.SECONDS)).containsExactly(
+                Map.of("type", "CREATED", "id", created.getId().toString(), "category", Map.of("name", "Subscribed")),
+                Map.of("type", "UPDATED", "id", created.getId().toString(), "category", Map.of("name", "Subscribed and renamed")),
+                nullCategory("DELETED", created.getId()));
+    }
+
+    @Test
+    void stalledSubscriberIsDisconnected() throws Exception {
+        Long categoryId = categoryRepository.findAll().get(0).getId();
+        double subscribers = subscribers();
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        BaseSubscriber<GraphQlTester.Response> stalled = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                error.complete(throwable);
+            }
+        };
+        graphQlTester.document("subscription { productChanged { id } }")
+                .executeSubscription()
+                .toFlux()
+                .subscribe(stalled);
+        awaitSubscribers(subscribers + 1);
+
+        List<ProductInput> inputs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            inputs.add(input("Bulk " + i, categoryId));
+        }
+        productService.bulkCreateProducts(inputs);
+
+        // Dropped from the bus at once; told so when it reads again
+        for (int i = 0; i < 100 && subscribers() > subscribers; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(subscribers()).isEqualTo(subscribers);
+        stalled.request(Long.MAX_VALUE);
+        assertThat(error.get(5, TimeUnit.SECONDS)).isInstanceOfSatisfying(SubscriptionPublisherException.class, ex ->
+                assertThat(ex.getErrors()).singleElement()
+                        .extracting(graphQlError -> graphQlError.toSpecification().get("extensions"))
+                        .isEqualTo(Map.of("classification", "SLOW_CONSUMER")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<List<Map<String, Object>>> subscribe(String document, Long categoryId, String field, int count) throws InterruptedException {
+        double subscribers = subscribers();
+        CompletableFuture<List<Map<String, Object>>> events = graphQlTester.document(document)
+                .variable("categoryId", categoryId)
+                .executeSubscription()
+                .toFlux(field, Map.class)
+                .take(count)
+                .<Map<String, Object>>map(event -> (Map<String, Object>) event)
+                .collectList()
+                .toFuture();
+        awaitSubscribers(subscribers + 1);
+        return events;
+    }
+
+    // The subscription reaches the bus asynchronously; events published before that are not seen
+    private void awaitSubscribers(double expected) throws InterruptedException {
+        for (int i = 0; i < 100 && subscribers() < expected; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(subscribers()).isGreaterThanOrEqualTo(expected);
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("catalog.events.subscribers").gauge().value();
+    }
+
+    private static Map<String, Object> nullCategory(String type, Long id) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", type);
+        event.put("id", id.toString());
+        event.put("category", null);
+        return event;
+    }
+
+    private static ProductInput input(String name, Long categoryId) {
+        ProductInput input = new ProductInput();
+        input.setName(name);
+        input.setCategoryId(categoryId);
+        return input;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.nmegtaskbackend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.example.nmegtaskbackend.dto.CategoryInput;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.service.CategoryService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class GraphQLGetTests {
+
+    private static final Duration VERSION_TTL = Duration.ofMillis(200);
+
+    private static final String CATEGORIES = "query { categories(first: 5) { edges { node { id name products { id } } } } }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void unchangedQueryIsNotModified() throws Exception {
+        String etag = graphQl(get("/graphql").param("query", CATEGORIES))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.categories.edges", hasSize(5)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        graphQl(get("/graphql").param("query", CATEGORIES).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        CategoryInput input = new CategoryInput();
+        input.setName("Added after the first read");
+        categoryService.createCategory(input);
+
+        String changed = graphQl(get("/graphql").param("query", CATEGORIES).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    // Another instance's commit only advances the shared counter row
+    @Test
+    void writesThroughAnotherInstanceChangeTheETagWithinTheTtl() throws Exception {
+        String etag = graphQl(get("/graphql").param("query", CATEGORIES))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        if (jdbcTemplate.update("UPDATE catalog_change_counter SET version = version + 1 WHERE id = 1") == 0) {
+            jdbcTemplate.update("INSERT INTO catalog_change_counter (id, version) VALUES (1, 1)");
+        }
+        Thread.sleep(VERSION_TTL.toMillis() + 50);
+
+        graphQl(get("/graphql").param("query", CATEGORIES).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void mutationsAreRejected() throws Exception {
+        long categories = categoryRepository.count();
+
+        graphQl(get("/graphql").param("query", "mutation { createCategory(input: {name: \"Sent with GET\"}) { id } }"))
+                .andExpect(jsonPath("$.errors[0].message").value("Only queries can be sent with GET; use POST for mutation"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        assertThat(categoryRepository.count()).isEqualTo(categories);
+    }
+
+    @Test
+    void acceptsPersistedQueryHashes() throws Exception {
+        String hash = manifestId("GetCategories");
+        graphQl(get("/graphql")
+                .param("operationName", "GetCategories")
+                .param("variables", "{\"first\": 3}")
+                .param("extensions", "{\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"" + hash + "\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.categories.edges", hasSize(3)))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void malformedVariablesAreRejected() throws Exception {
+        mockMvc.perform(get("/graphql").param("query", CATEGORIES).param("variables", "{first: 3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String manifestId(String name) throws IOException {
+        try (InputStream input = new ClassPathResource("graphql/persisted-queries.json").getInputStream()) {
+            for (JsonNode operation : objectMapper.readTree(input).path("operations")) {
+                if (operation.path("name").asText().equals(name)) {
+                    return operation.path("id").asText();
+                }
+            }
+        }
+        throw new IllegalArgumentException(name + " is not in the manifest");
+    }
+
+    private ResultActions graphQl(MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
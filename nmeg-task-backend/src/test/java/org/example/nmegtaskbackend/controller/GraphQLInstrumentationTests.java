@@ -0,0 +1,99 @@
+package org.example.nmegtaskbackend.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.graphql.tracing.enabled=true",
+        "app.graphql.instrumentation.row-counting.enabled=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class GraphQLInstrumentationTests {
+
+    private static final String PRODUCTS = """
+            query ProductPage { products(first: 20) { edges { node { id name category { id name } images { id url } } } } }
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @Test
+    void recordsFieldTimingsAndSqlPerOperation() throws Exception {
+        graphQl("{\"query\": \"" + PRODUCTS.strip() + "\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.products.edges", hasSize(20)))
+                .andExpect(jsonPath("$.extensions").doesNotExist());
+
+        assertThat(timer("ProductPage", "Query.products").count()).isEqualTo(1);
+        assertThat(timer("ProductPage", "Product.category").count()).isEqualTo(20);
+        assertThat(timer("ProductPage", "Product.images").count()).isEqualTo(20);
+
+        // products + categories IN (...) + images IN (...)
+        assertThat(summary("graphql.operation.sql.statements", "ProductPage").max()).isEqualTo(3);
+        assertThat(summary("graphql.operation.sql.rows", "ProductPage").max()).isGreaterThanOrEqualTo(20);
+        assertThat(summary("graphql.operation.response.size", "ProductPage").max()).isGreaterThan(1_000);
+    }
+
+    @Test
+    void addsTracingWhenRequested() throws Exception {
+        graphQl("{\"query\": \"" + PRODUCTS.strip() + "\", \"extensions\": {\"tracing\": true}}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.extensions.tracing.version").value(1))
+                .andExpect(jsonPath("$.extensions.tracing.duration").isNumber())
+                .andExpect(jsonPath("$.extensions.tracing.execution.resolvers[*].fieldName", hasItem("category")))
+                .andExpect(jsonPath("$.extensions.tracing.sql.statements").value(3));
+    }
+
+    private ResultActions graphQl(String body) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content(body));
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private Timer timer(String operation, String field) {
+        return meterRegistry.get("graphql.field.duration").tag("operation", operation).tag("field", field).timer();
+    }
+
+    private DistributionSummary summary(String name, String operation) {
+        return meterRegistry.get(name).tag("operation", operation).summary();
+    }
+}
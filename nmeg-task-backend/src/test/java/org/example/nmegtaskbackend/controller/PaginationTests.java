@@ -0,0 +1,110 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.example.nmegtaskbackend.TestCatalog;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.example.nmegtaskbackend.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class PaginationTests {
+
+    private static final String PRODUCTS_PAGE = """
+            query($after: String) {
+              products(first: 100, after: $after) {
+                edges { node { id } }
+                pageInfo { hasNextPage endCursor }
+              }
+            }
+            """;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void productsCanBeWalkedPageByPage() {
+        Set<String> ids = new HashSet<>();
+        String after = null;
+        boolean hasNextPage = true;
+
+        while (hasNextPage) {
+            GraphQlTester.Response response = graphQlTester.document(PRODUCTS_PAGE)
+                    .variable("after", after)
+                    .execute();
+            List<String> pageIds = response.path("products.edges[*].node.id").entityList(String.class).get();
+            assertThat(pageIds).hasSizeLessThanOrEqualTo(100);
+            ids.addAll(pageIds);
+
+            hasNextPage = response.path("products.pageInfo.hasNextPage").entity(Boolean.class).get();
+            after = response.path("products.pageInfo.endCursor").entity(String.class).get();
+        }
+
+        assertThat(ids).hasSize(TestCatalog.PRODUCT_COUNT);
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        graphQlTester.document("{ products(first: 5000) { edges { node { id } } } }")
+                .execute()
+                .path("products.edges").entityList(Object.class).hasSize(Pagination.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void categoryListsAreCapped() {
+        graphQlTester.document("{ activeCategories(limit: 5) { id } }")
+                .execute()
+                .path("activeCategories").entityList(Object.class).hasSize(5);
+        graphQlTester.document("{ categoriesValidAt(dateTime: \"" + LocalDateTime.now() + "\", limit: 5000) { id } }")
+                .execute()
+                .path("categoriesValidAt").entityList(Object.class).hasSize(TestCatalog.CATEGORY_COUNT);
+    }
+
+    @Test
+    void categoryProductsAreCappedPerCategory() {
+        List<Long> categoryIds = categoryRepository.findAll().stream().limit(2).map(Category::getId).toList();
+
+        List<Product> products = productService.getProductsByCategoryIds(categoryIds, 3);
+
+        for (Long categoryId : categoryIds) {
+            assertThat(products).filteredOn(product -> product.getCategoryId().equals(categoryId))
+                    .extracting(Product::getId)
+                    .containsExactlyElementsOf(productRepository.findIdsByCategoryId(categoryId).subList(0, 3));
+        }
+    }
+}
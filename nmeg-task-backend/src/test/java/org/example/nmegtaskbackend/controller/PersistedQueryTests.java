@@ -0,0 +1,173 @@
+package org.example.nmegtaskbackend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class PersistedQueryTests {
+
+    private static final String PRODUCTS = "query ProductNames { products(first: 3) { edges { node { id name } } } }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void unknownHashIsNotFound() throws Exception {
+        graphQl(null, sha256("query { unknown }"))
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void queryIsRegisteredUnderItsHash() throws Exception {
+        String query = "query ProductIds { products(first: 3) { edges { node { id } } } }";
+        String hash = sha256(query);
+        graphQl(null, hash)
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+
+        graphQl(query, hash)
+                .andExpect(jsonPath("$.data.products.edges", hasSize(3)));
+        graphQl(null, hash)
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.products.edges", hasSize(3)));
+    }
+
+    @Test
+    void hashMustMatchQuery() throws Exception {
+        graphQl(PRODUCTS, sha256("query { categories { edges { node { id } } } }"))
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void manifestOperationsAreServedByHash() throws Exception {
+        graphQl(null, manifestId("GetCategories"), Map.of("first", 5))
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.categories.edges", hasSize(5)))
+                .andExpect(jsonPath("$.data.categories.edges[0].node.__typename").value("Category"));
+    }
+
+    @Test
+    void plainQueriesStillWork() throws Exception {
+        graphQl(PRODUCTS, null)
+                .andExpect(jsonPath("$.data.products.edges", hasSize(3)));
+        graphQl(PRODUCTS, null)
+                .andExpect(jsonPath("$.data.products.edges", hasSize(3)));
+        graphQl("query { products { edges { node { unknownField } } } }", null)
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("ValidationError"));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.graphql.persisted-queries.mode=allowlist")
+    class Allowlist {
+
+        // The enclosing instance (and its seeded catalog) belongs to the default context
+        @Autowired
+        private MockMvc allowlistMockMvc;
+
+        @Test
+        void onlyManifestOperationsRun() throws Exception {
+            graphQl(allowlistMockMvc, null, manifestId("GetProducts"), Map.of("first", 2))
+                    .andExpect(jsonPath("$.errors").doesNotExist())
+                    .andExpect(jsonPath("$.data.products.edges").isArray());
+            graphQl(allowlistMockMvc, manifestBody("GetProducts"), null, Map.of("first", 2))
+                    .andExpect(jsonPath("$.errors").doesNotExist())
+                    .andExpect(jsonPath("$.data.products.edges").isArray());
+
+            graphQl(allowlistMockMvc, PRODUCTS, sha256(PRODUCTS), Map.of())
+                    .andExpect(jsonPath("$.errors[0].message").value("Operation is not in the persisted query allowlist"))
+                    .andExpect(jsonPath("$.data").doesNotExist());
+            graphQl(allowlistMockMvc, PRODUCTS, null, Map.of())
+                    .andExpect(jsonPath("$.errors[0].message").value("Operation is not in the persisted query allowlist"));
+        }
+    }
+
+    private ResultActions graphQl(String query, String hash) throws Exception {
+        return graphQl(query, hash, Map.of());
+    }
+
+    private ResultActions graphQl(String query, String hash, Map<String, Object> variables) throws Exception {
+        return graphQl(mockMvc, query, hash, variables);
+    }
+
+    private ResultActions graphQl(MockMvc mockMvc, String query, String hash, Map<String, Object> variables) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        if (query != null) {
+            body.put("query", query);
+        }
+        if (hash != null) {
+            body.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+        }
+        body.put("variables", variables);
+        ResultActions actions = mockMvc.perform(post("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)));
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private String manifestId(String name) throws IOException {
+        return manifestOperation(name).path("id").asText();
+    }
+
+    private String manifestBody(String name) throws IOException {
+        return manifestOperation(name).path("body").asText();
+    }
+
+    private JsonNode manifestOperation(String name) throws IOException {
+        try (InputStream input = new ClassPathResource("graphql/persisted-queries.json").getInputStream()) {
+            for (JsonNode operation : objectMapper.readTree(input).path("operations")) {
+                if (operation.path("name").asText().equals(name)) {
+                    return operation;
+                }
+            }
+        }
+        throw new IllegalArgumentException(name + " is not in the manifest");
+    }
+
+    private static String sha256(String text) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
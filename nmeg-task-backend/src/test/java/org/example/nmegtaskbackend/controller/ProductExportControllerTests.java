@@ -0,0 +1,85 @@
+package org.example.nmegtaskbackend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class ProductExportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void exportsEveryProductAsNdjson() throws Exception {
+        String body = mockMvc.perform(get("/products/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSizeGreaterThanOrEqualTo(TestCatalog.PRODUCT_COUNT);
+        List<Long> ids = lines.stream().map(this::readId).toList();
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("name").asText()).isNotEmpty();
+        assertThat(first.get("imageUrls").isArray()).isTrue();
+    }
+
+    @Test
+    void exportsCsvWithTheImportHeader() throws Exception {
+        String body = mockMvc.perform(get("/products/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines.get(0)).isEqualTo("id,name,description,categoryId,imageUrls");
+        assertThat(lines).hasSizeGreaterThan(TestCatalog.PRODUCT_COUNT);
+    }
+
+    @Test
+    void rejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long readId(String line) {
+        try {
+            return objectMapper.readTree(line).get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
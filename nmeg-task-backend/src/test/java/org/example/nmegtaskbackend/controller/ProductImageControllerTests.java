@@ -0,0 +1,170 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.example.nmegtaskbackend.service.ImageVariantService;
+import org.example.nmegtaskbackend.service.ProductImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImageControllerTests {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3, 4};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @MockitoSpyBean
+    private ImageVariantService imageVariantService;
+
+    private Long imageId;
+
+    @BeforeEach
+    void saveImage() {
+        imageId = productImageService.upload(List.of(new MockMultipartFile("files", PNG))).get(0).getId();
+    }
+
+    @Test
+    void servesFullImage() throws Exception {
+        mockMvc.perform(get("/images/{id}", imageId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, PNG.length))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().bytes(PNG));
+    }
+
+    @Test
+    void servesByteRange() throws Exception {
+        mockMvc.perform(get("/images/{id}", imageId).header(HttpHeaders.RANGE, "bytes=8-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-11/" + PNG.length))
+                .andExpect(content().bytes(new byte[] {1, 2, 3, 4}));
+    }
+
+    @Test
+    void returnsNotModifiedForMatchingEtag() throws Exception {
+        String etag = mockMvc.perform(get("/images/{id}", imageId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/images/{id}", imageId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void returnsNotFoundForUnknownImage() throws Exception {
+        mockMvc.perform(get("/images/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void servesResizedVariant() throws Exception {
+        Long photoId = productImageService.upload(List.of(new MockMultipartFile("files", png(1000, 500)))).get(0).getId();
+
+        byte[] variant = mockMvc.perform(get("/images/{id}", photoId).param("w", "200").param("format", "jpeg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(variant));
+        assertThat(decoded.getWidth()).isEqualTo(200);
+        assertThat(decoded.getHeight()).isEqualTo(100);
+    }
+
+    @Test
+    void servesCachedVariantWithSameEtag() throws Exception {
+        Long photoId = productImageService.upload(List.of(new MockMultipartFile("files", png(300, 300)))).get(0).getId();
+
+        String etag = mockMvc.perform(get("/images/{id}", photoId).param("w", "64"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/images/{id}", photoId).param("w", "64").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    // The ETag is the variant's cache key, so a 304 is answered before the variant is generated
+    @Test
+    void revalidatesVariantWithoutGeneratingIt() throws Exception {
+        Long photoId = productImageService.upload(List.of(new MockMultipartFile("files", png(300, 300)))).get(0).getId();
+        String etag = mockMvc.perform(get("/images/{id}", photoId).param("w", "64"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String widerEtag = etag.replace("-64.", "-400.");
+
+        mockMvc.perform(get("/images/{id}", photoId).param("w", "400").header(HttpHeaders.IF_NONE_MATCH, widerEtag))
+                .andExpect(status().isNotModified());
+        verify(imageVariantService, never()).getVariant(any(), eq(400), any());
+    }
+
+    @Test
+    void servesOriginalWhenSourceCannotBeDecoded() throws Exception {
+        mockMvc.perform(get("/images/{id}", imageId).param("w", "64"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(content().bytes(PNG));
+    }
+
+    @Test
+    void rejectsUnsupportedVariantWidth() throws Exception {
+        mockMvc.perform(get("/images/{id}", imageId).param("w", "123"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void uploadsImagesAndReturnsHandles() throws Exception {
+        mockMvc.perform(multipart("/images")
+                        .file(new MockMultipartFile("files", "a.png", "image/png", PNG))
+                        .file(new MockMultipartFile("files", "b.png", "image/png", PNG)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].contentType").value("image/png"))
+                .andExpect(jsonPath("$[0].size").value(PNG.length))
+                .andExpect(jsonPath("$[1].url").isString());
+    }
+
+    @Test
+    void rejectsUploadsThatAreNotImages() throws Exception {
+        mockMvc.perform(multipart("/images")
+                        .file(new MockMultipartFile("files", "notes.txt", "text/plain", "hello".getBytes())))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.nmegtaskbackend.controller;
+
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void createCategory() {
+        categoryId = categoryRepository.save(new Category("Category " + System.nanoTime(), LocalDateTime.now(), null)).getId();
+    }
+
+    @Test
+    void importsCsvAndReportsRejectedRows() throws Exception {
+        String csv = """
+                categoryId,name,description
+                %1$d,"Desk, oak","Solid ""oak""
+                with drawers"
+                %1$d,,No name
+                abc,Chair,
+                %2$d,Lamp,
+                %1$d,Shelf,
+                """.formatted(categoryId, Long.MAX_VALUE);
+
+        mockMvc.perform(post("/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[1].row").value(3))
+                .andExpect(jsonPath("$.errors[2].row").value(4));
+
+        assertThat(productRepository.findFirstProductsPerCategory(List.of(categoryId), 10))
+                .extracting("name", "description")
+                .containsExactlyInAnyOrder(
+                        tuple("Desk, oak", "Solid \"oak\"\nwith drawers"),
+                        tuple("Shelf", null));
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        String ndjson = """
+                {"name": "Desk", "categoryId": %1$d}
+                not json
+
+                {"name": "Chair", "description": "Oak", "categoryId": %1$d}
+                """.formatted(categoryId);
+
+        mockMvc.perform(post("/products/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2));
+    }
+
+    @Test
+    void malformedQuotingEndsCsvImportWithTheRowsReadSoFar() throws Exception {
+        String csv = """
+                categoryId,name
+                %1$d,Desk
+                %1$d,"Chair
+                """.formatted(categoryId);
+
+        mockMvc.perform(post("/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2));
+
+        assertThat(productRepository.findFirstProductsPerCategory(List.of(categoryId), 10)).extracting("name").containsExactly("Desk");
+    }
+
+    @Test
+    void rejectsCsvWithoutRequiredColumns() throws Exception {
+        mockMvc.perform(post("/products/import").contentType("text/csv").content("name,description\nDesk,Oak\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
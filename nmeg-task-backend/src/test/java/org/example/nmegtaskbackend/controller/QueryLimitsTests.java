@@ -0,0 +1,104 @@
+package org.example.nmegtaskbackend.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.graphql.limits.max-response-size=32KB")
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class QueryLimitsTests {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void frontendPagesAreAccepted() {
+        graphQlTester.document("""
+                        query {
+                          categories(first: 100) {
+                            edges { node { id name validFrom validTo products { id } } }
+                            pageInfo { hasNextPage endCursor }
+                          }
+                        }
+                        """)
+                .execute()
+                .path("categories.edges").entityList(Object.class).hasSizeGreaterThan(0);
+    }
+
+    @Test
+    void fanOutIsRejectedBeforeAnyFetch() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document("""
+                        query {
+                          categories {
+                            edges { node { products { category { products { images { id url } } } } } }
+                          }
+                        }
+                        """)
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().contains("maximum query complexity exceeded"))
+                .verify()
+                .path("categories").pathDoesNotExist();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void deepQueryIsRejected() {
+        // Introspection costs nothing, so only the depth limit applies
+        graphQlTester.document("""
+                        query {
+                          __schema { types { fields { type { ofType { ofType { ofType { ofType { ofType {
+                            ofType { ofType { ofType { ofType { ofType { ofType { name } } } } } }
+                          } } } } } } } } }
+                        }
+                        """)
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().contains("maximum query depth exceeded"))
+                .verify();
+    }
+
+    @Test
+    void oversizedResponseIsReplacedByAnError() {
+        String page = "products(first: 100) { edges { node { id name description categoryId } } }";
+        graphQlTester.document("query { " + page + " }")
+                .execute()
+                .path("products.edges").entityList(Object.class).hasSize(100);
+
+        // Aliases repeat the page past the limit
+        graphQlTester.document("query { a: %1$s b: %1$s c: %1$s d: %1$s e: %1$s }".formatted(page))
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().startsWith("Response exceeds the limit of 32768 bytes"))
+                .verify()
+                .path("a").pathDoesNotExist();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.nmegtaskbackend.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.nmegtaskbackend.TestCatalog;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "app.threads.virtual.max-concurrent-tasks=2"
+})
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class VirtualThreadTests {
+
+    private static final String PRODUCTS = """
+            query {
+              products(first: 50) {
+                edges { node { id name category { id name } images { id url } } }
+              }
+            }
+            """;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TestCatalog testCatalog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private List<TaskDecorator> taskDecorators;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void seedCatalog() {
+        testCatalog.seed();
+    }
+
+    @Test
+    void asyncFetchersStillBatch() {
+        assertThat(taskDecorators).hasSize(1);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document(PRODUCTS).execute()
+                .path("products.edges").entityList(Object.class).hasSize(50)
+                .path("products.edges[0].node.category.name").hasValue()
+                .path("products.edges[0].node.images[0].url").hasValue();
+
+        // products + images IN (...), plus categories IN (...) unless already cached
+        assertThat(statistics.getPrepareStatementCount()).isBetween(2L, 3L);
+    }
+
+    @Test
+    void sqlIsCountedOnExecutorThreads() {
+        graphQlTester.document(PRODUCTS.replace("query {", "query VirtualProducts {")).execute()
+                .path("products.edges").entityList(Object.class).hasSize(50);
+
+        DistributionSummary statements = meterRegistry.get("graphql.operation.sql.statements").tag("operation", "VirtualProducts").summary();
+        assertThat(statements.max()).isBetween(2.0, 3.0);
+    }
+
+    @Test
+    void concurrentRequestsCompleteUnderTheTaskLimit() {
+        List<CompletableFuture<Void>> requests = IntStream.range(0, 20)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> graphQlTester.document(PRODUCTS).execute()
+                        .path("products.edges").entityList(Object.class).hasSize(50)))
+                .toList();
+
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.nmegtaskbackend.repository;
+
+import org.example.nmegtaskbackend.dto.ProductSearchHit;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The ranked search relies on pg_trgm and tsvector, so this runs against PostgreSQL migrated by
+// Flyway, and only when SPRING_DATASOURCE_URL points at one. Each test rolls back, and the products
+// are named after a made-up word so rows already in the database never match.
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "SPRING_DATASOURCE_URL", matches = "jdbc:postgresql:.*")
+@Transactional
+class ProductSearchRepositoryTests {
+
+    private static final String WORD = "brindlewick";
+
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category lighting;
+    private Category office;
+
+    @BeforeEach
+    void createProducts() {
+        lighting = categoryRepository.save(new Category("Lighting " + WORD, LocalDateTime.now(), null));
+        office = categoryRepository.save(new Category("Office " + WORD, LocalDateTime.now(), null));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        Product inDescription = save("Desk lamp", "A " + WORD + " finish", lighting);
+        Product inName = save(WORD + " lamp", null, lighting);
+        save("Floor lamp", null, lighting);
+
+        assertThat(productSearchRepository.search(WORD, null, null, 10)).extracting(ProductSearchHit::getId)
+                .containsExactly(inName.getId(), inDescription.getId());
+    }
+
+    @Test
+    void matchesPartialWordsAndFiltersByCategory() {
+        Product lamp = save(WORD + " lamp", null, lighting);
+        save(WORD + " chair", null, office);
+
+        assertThat(productSearchRepository.search(WORD.substring(0, 7), null, null, 10)).hasSize(2);
+        assertThat(productSearchRepository.search(WORD, lighting.getId(), null, 10)).extracting(ProductSearchHit::getId)
+                .containsExactly(lamp.getId());
+    }
+
+    @Test
+    void treatsLikeWildcardsLiterally() {
+        Product percent = save(WORD + " 100% wool", null, office);
+        save(WORD + " 1000 wool", null, office);
+
+        assertThat(productSearchRepository.search("100%", office.getId(), null, 10)).extracting(ProductSearchHit::getId)
+                .containsExactly(percent.getId());
+    }
+
+    @Test
+    void pagesByRankThenIdWithoutRepeats() {
+        for (int i = 0; i < 5; i++) {
+            save(WORD + " lamp " + i, null, lighting);
+        }
+        List<ProductSearchHit> all = productSearchRepository.search(WORD, null, null, 10);
+
+        List<Long> paged = new ArrayList<>();
+        ProductSearchHit after = null;
+        List<ProductSearchHit> page;
+        do {
+            page = productSearchRepository.search(WORD, null, after, 2);
+            page.forEach(hit -> paged.add(hit.getId()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 2);
+
+        assertThat(paged).containsExactlyElementsOf(all.stream().map(ProductSearchHit::getId).toList()).hasSize(5);
+    }
+
+    private Product save(String name, String description, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategoryId(category.getId());
+        return productRepository.saveAndFlush(product);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.nmegtaskbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.nmegtaskbackend.dto.ProductChange;
+import org.example.nmegtaskbackend.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogEventsTests {
+
+    private static final int BUFFER_SIZE = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CatalogEvents catalogEvents = new CatalogEvents(BUFFER_SIZE, meterRegistry);
+
+    @AfterEach
+    void close() {
+        catalogEvents.close();
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWithoutHoldingUpOthers() throws Exception {
+        StalledSubscriber stalled = new StalledSubscriber();
+        catalogEvents.productChanges().subscribe(stalled);
+        List<ProductChange> received = new CopyOnWriteArrayList<>();
+        catalogEvents.productChanges().subscribe(received::add);
+
+        // Each burst fits a buffer; the stalled subscriber only overflows on the second
+        catalogEvents.publishProducts(changes(1, BUFFER_SIZE));
+        awaitSize(received, BUFFER_SIZE);
+        catalogEvents.publishProducts(changes(BUFFER_SIZE + 1, BUFFER_SIZE * 2));
+
+        awaitSize(received, BUFFER_SIZE * 2);
+        assertThat(received).extracting(ProductChange::getId)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, BUFFER_SIZE * 2).boxed().toList());
+        assertThat(meterRegistry.get("catalog.events.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("catalog.events.subscribers").gauge().value()).isEqualTo(1);
+
+        // Once it reads again it gets what was buffered, then the error
+        stalled.request(Long.MAX_VALUE);
+        assertThat(stalled.error.get(5, TimeUnit.SECONDS)).matches(Exceptions::isOverflow);
+        assertThat(stalled.received).hasSizeLessThanOrEqualTo(BUFFER_SIZE + 1);
+    }
+
+    @Test
+    void eventsWithoutSubscribersAreDiscarded() {
+        catalogEvents.publishProducts(List.of(created(1)));
+
+        List<ProductChange> received = catalogEvents.productChanges()
+                .take(Duration.ofMillis(200))
+                .collectList()
+                .block();
+        assertThat(received).isEmpty();
+    }
+
+    private static List<ProductChange> changes(long firstId, long lastId) {
+        return LongStream.rangeClosed(firstId, lastId).mapToObj(CatalogEventsTests::created).toList();
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 100 && list.size() < size; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(list).hasSize(size);
+    }
+
+    private static ProductChange created(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryId(1L);
+        return ProductChange.created(product);
+    }
+
+    // Never requests anything unless told to, like a client that stopped reading
+    private static class StalledSubscriber extends BaseSubscriber<ProductChange> {
+
+        private final CompletableFuture<Throwable> error = new CompletableFuture<>();
+        private final List<ProductChange> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(ProductChange change) {
+            received.add(change);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error.complete(throwable);
+        }
+    }
+}
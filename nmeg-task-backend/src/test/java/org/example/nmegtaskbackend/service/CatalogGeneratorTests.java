@@ -0,0 +1,60 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.ProductImage;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductImageRepository;
+import org.example.nmegtaskbackend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.generator.enabled=true",
+        "app.generator.categories=40",
+        "app.generator.products=2500",
+        "app.generator.max-images-per-product=2",
+        "app.generator.image-size-median=2KB"
+})
+@ActiveProfiles("test")
+class CatalogGeneratorTests {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private CategoryValidityIndex categoryValidityIndex;
+
+    @Autowired
+    private ProductTypeaheadIndex productTypeaheadIndex;
+
+    @Test
+    void generatesCatalogAtStartup() {
+        List<Category> categories = categoryRepository.findAll();
+        assertThat(categories).hasSize(40);
+        assertThat(productRepository.count()).isEqualTo(2500);
+
+        // Open-ended, future and expired windows are all represented
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(categories).anyMatch(category -> category.getValidTo() == null);
+        assertThat(categories).anyMatch(category -> category.getValidTo() != null && category.getValidTo().isAfter(now));
+        assertThat(categories).anyMatch(category -> category.getValidTo() != null && category.getValidTo().isBefore(now));
+        assertThat(categoryValidityIndex.activeCategories()).hasSizeLessThan(40).isNotEmpty();
+
+        List<ProductImage> images = productImageRepository.findAll();
+        assertThat(images).isNotEmpty().allMatch(image -> "image/jpeg".equals(image.getContentType()));
+        assertThat(productTypeaheadIndex.suggest("oak", 5)).isNotEmpty();
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.nmegtaskbackend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.nmegtaskbackend.dto.CategoryInput;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryServiceTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void cachesCategoriesById() {
+        Long id = categoryService.createCategory(new CategoryInput(uniqueName(), null, null)).getId();
+        categoryService.getCategoryById(id);
+        Statistics statistics = statistics();
+
+        assertThat(categoryService.getCategoryById(id)).isPresent();
+        assertThat(categoryService.getCategoriesByIds(List.of(id))).hasSize(1);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void updateEvictsCachedCategory() {
+        Long id = categoryService.createCategory(new CategoryInput(uniqueName(), null, null)).getId();
+        categoryService.getCategoryById(id);
+
+        String newName = uniqueName();
+        categoryService.updateCategory(id, new CategoryInput(newName, null, null));
+
+        assertThat(categoryService.getCategoryById(id)).hasValueSatisfying(category ->
+                assertThat(category.getName()).isEqualTo(newName));
+    }
+
+    @Test
+    void createAndDeleteUpdateActiveCategories() {
+        categoryService.getActiveCategories();
+
+        Category created = categoryService.createCategory(new CategoryInput(uniqueName(), null, null));
+        assertThat(categoryService.getActiveCategories()).extracting(Category::getId).contains(created.getId());
+        assertThat(categoryService.getCategoryById(created.getId())).isPresent();
+
+        assertThat(categoryService.getCategoriesValidAt(LocalDateTime.now())).extracting(Category::getId).contains(created.getId());
+
+        categoryService.deleteCategory(created.getId());
+        assertThat(categoryService.getActiveCategories()).extracting(Category::getId).doesNotContain(created.getId());
+        assertThat(categoryService.getCategoryById(created.getId())).isEmpty();
+    }
+
+    @Test
+    void activeCategoriesDropCategoriesOnceTheyExpire() throws InterruptedException {
+        Category expiring = categoryService.createCategory(
+                new CategoryInput(uniqueName(), LocalDateTime.now().minusDays(1), LocalDateTime.now().plusNanos(200_000_000)));
+        assertThat(categoryService.getActiveCategories()).extracting(Category::getId).contains(expiring.getId());
+
+        Thread.sleep(300);
+
+        assertThat(categoryService.getActiveCategories()).extracting(Category::getId).doesNotContain(expiring.getId());
+    }
+
+    @Test
+    void bulkUpsertUpdatesByNameAndCreatesTheRest() {
+        Category existing = categoryService.createCategory(new CategoryInput(uniqueName(), null, null));
+        categoryService.getCategoryById(existing.getId());
+        LocalDateTime validTo = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        String newName = uniqueName() + " new";
+
+        List<Category> upserted = categoryService.bulkUpsertCategories(List.of(
+                new CategoryInput(existing.getName(), null, validTo),
+                new CategoryInput(newName, null, null)));
+
+        assertThat(upserted.get(0).getId()).isEqualTo(existing.getId());
+        assertThat(categoryService.getCategoryById(existing.getId())).hasValueSatisfying(category ->
+                assertThat(category.getValidTo()).isEqualTo(validTo));
+        assertThat(categoryService.getActiveCategories()).extracting(Category::getName).contains(newName);
+    }
+
+    @Test
+    void bulkUpsertRejectsDuplicateNames() {
+        String name = uniqueName();
+
+        assertThatThrownBy(() -> categoryService.bulkUpsertCategories(List.of(
+                new CategoryInput(name, null, null), new CategoryInput(name, null, null))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("index 1");
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static String uniqueName() {
+        return "Category " + System.nanoTime();
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryValidityIndexTests {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void validAtMatchesLinearScan() {
+        Random random = new Random(42);
+        List<Category> categories = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            LocalDateTime from = EPOCH.plusHours(random.nextInt(1000));
+            LocalDateTime to = random.nextInt(4) == 0 ? null : from.plusHours(1 + random.nextInt(200));
+            categories.add(category(id, from, to));
+        }
+        CategoryValidityIndex index = index(categories);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime dateTime = EPOCH.plusHours(random.nextInt(1300) - 100);
+            List<Long> expected = categories.stream()
+                    .filter(category -> !category.getValidFrom().isAfter(dateTime))
+                    .filter(category -> category.getValidTo() == null || category.getValidTo().isAfter(dateTime))
+                    .map(Category::getId)
+                    .toList();
+            assertThat(index.validAt(dateTime)).extracting(Category::getId).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void windowsAreHalfOpen() {
+        CategoryValidityIndex index = index(List.of(category(1L, EPOCH, EPOCH.plusDays(1))));
+
+        assertThat(index.validAt(EPOCH)).hasSize(1);
+        assertThat(index.validAt(EPOCH.plusDays(1))).isEmpty();
+        assertThat(index.validAt(EPOCH.minusNanos(1))).isEmpty();
+    }
+
+    @Test
+    void putAndRemoveUpdateTheIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        CategoryValidityIndex index = index(List.of(category(1L, now.minusDays(1), null)));
+
+        index.put(category(2L, now.minusDays(1), now.plusDays(1)));
+        assertThat(index.activeCategories()).extracting(Category::getId).containsExactly(2L, 1L);
+
+        index.put(category(2L, now.minusDays(2), now.minusDays(1)));
+        assertThat(index.activeCategories()).extracting(Category::getId).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.activeCategories()).isEmpty();
+    }
+
+    private static CategoryValidityIndex index(List<Category> categories) {
+        CategoryRepository repository = mock(CategoryRepository.class);
+        when(repository.findAll()).thenReturn(categories);
+        return new CategoryValidityIndex(repository);
+    }
+
+    private static Category category(Long id, LocalDateTime validFrom, LocalDateTime validTo) {
+        Category category = new Category("Category " + id, validFrom, validTo);
+        category.setId(id);
+        return category;
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.nmegtaskbackend.service;
+
+import org.example.nmegtaskbackend.dto.ProductInput;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.example.nmegtaskbackend.dto.UploadedImage;
+import org.example.nmegtaskbackend.entity.Category;
+import org.example.nmegtaskbackend.entity.Product;
+import org.example.nmegtaskbackend.entity.ProductImage;
+import org.example.nmegtaskbackend.exception.ValidationException;
+import org.example.nmegtaskbackend.repository.CategoryRepository;
+import org.example.nmegtaskbackend.repository.ProductImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceTests {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3, 4, 5};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 6, 7};
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void createCategory() {
+        categoryId = categoryRepository.save(new Category("Category " + System.nanoTime(), LocalDateTime.now(), null)).getId();
+    }
+
+    @Test
+    void imageIdsReplaceTheProductImagesInOrder() {
+        List<Long> ids = upload(PNG, JPEG, PNG);
+
+        Product product = productService.createProduct(input(List.of(ids.get(0), ids.get(1)), null));
+        assertThat(imageIds(product)).containsExactly(ids.get(0), ids.get(1));
+
+        productService.updateProduct(product.getId(), input(List.of(ids.get(2), ids.get(0)), null));
+        assertThat(imageIds(product)).containsExactly(ids.get(2), ids.get(0));
+        assertThat(productImageRepository.existsById(ids.get(1))).isFalse();
+    }
+
+    @Test
+    void imagesOfAnotherProductCannotBeClaimed() {
+        List<Long> ids = upload(PNG);
+        productService.createProduct(input(ids, null));
+
+        assertThatThrownBy(() -> productService.createProduct(input(ids, null)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void base64ImagesAreDecodedAndAppended() {
+        String dataUrl = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(JPEG);
+
+        Product product = productService.createProduct(input(null, List.of(dataUrl, Base64.getEncoder().encodeToString(PNG))));
+
+        List<ProductImage> images = productImageRepository.findByProductIdOrderByImageOrderAsc(product.getId());
+        assertThat(images).hasSize(2);
+        assertThat(content(images.get(0))).isEqualTo(JPEG);
+        assertThat(images.get(0).getContentType()).isEqualTo("image/jpeg");
+        assertThat(content(images.get(1))).isEqualTo(PNG);
+        assertThat(images.get(1).getSize()).isEqualTo(PNG.length);
+    }
+
+    @Test
+    void resentBase64ImagesKeepTheirRows() {
+        String jpeg = Base64.getEncoder().encodeToString(JPEG);
+        String png = Base64.getEncoder().encodeToString(PNG);
+        Product product = productService.createProduct(input(null, List.of(jpeg, png)));
+        List<ProductImage> created = productImageRepository.findByProductIdOrderByImageOrderAsc(product.getId());
+
+        productService.updateProduct(product.getId(), input(null, List.of(png, jpeg)));
+        assertThat(productImageRepository.findByProductIdOrderByImageOrderAsc(product.getId())).extracting(ProductImage::getId)
+                .containsExactly(created.get(1).getId(), created.get(0).getId());
+
+        productService.updateProduct(product.getId(), input(null, List.of(png)));
+        assertThat(productImageRepository.findByProductIdOrderByImageOrderAsc(product.getId())).extracting(ProductImage::getId)
+                .containsExactly(created.get(1).getId());
+    }
+
+    @Test
+    void base64ImagesAreAppendedAfterImageIds() {
+        List<Long> ids = upload(PNG);
+        String png = Base64.getEncoder().encodeToString(PNG);
+        String jpeg = Base64.getEncoder().encodeToString(JPEG);
+
+        Product product = productService.createProduct(input(ids, List.of(png, jpeg)));
+
+        // The PNG is already there through imageIds
+        List<ProductImage> images = productImageRepository.findByProductIdOrderByImageOrderAsc(product.getId());
+        assertThat(images).extracting(ProductImage::getContentType).containsExactly("image/png", "image/jpeg");
+        assertThat(images.get(0).getId()).isEqualTo(ids.get(0));
+    }
+
+    @Test
+    void invalidBase64IsRejected() {
+        assertThatThrownBy(() -> productService.createProduct(input(null, List.of("not base64!"))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("index 0");
+    }
+
+    @Test
+    void searchRejectsBlankQueryAndForeignCursor() {
+        assertThatThrownBy(() -> productService.searchProducts("  ", null, ScrollPosition.keyset(), 10, Set.of()))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> productService.searchProducts("lamp", null, ScrollPosition.forward(Map.of("id", 5L)), 10, Set.of()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void listQueriesReadOnlyTheRequestedColumns() {
+        productService.createProduct(new ProductInput("Lamp", "Brass", categoryId, null));
+
+        Product listed = productService.getProductsByCategory(categoryId, ScrollPosition.keyset(), 10, Set.of("name")).getContent().get(0);
+
+        assertThat(listed.getName()).isEqualTo("Lamp");
+        assertThat(listed.getDescription()).isNull();
+        assertThat(listed.getCategoryId()).isNull();
+    }
+
+    @Test
+    void suggestionsFollowProductChanges() {
+        String name = "Lamp" + System.nanoTime();
+        Product product = productService.createProduct(new ProductInput(name, "Brass", categoryId, null));
+        assertThat(productService.suggestProducts(name, 10)).extracting(ProductSuggestion::getId).containsExactly(product.getId());
+
+        productService.updateProduct(product.getId(), new ProductInput("Chair", "Brass", categoryId, null));
+        assertThat(productService.suggestProducts(name, 10)).isEmpty();
+
+        productService.deleteProduct(product.getId());
+        assertThat(productService.suggestProducts("brass", 100)).extracting(ProductSuggestion::getId).doesNotContain(product.getId());
+    }
+
+    @Test
+    void bulkCreateAssignsDistinctIdsAndStoresImages() {
+        List<Long> ids = upload(PNG);
+        ProductInput withImage = input(List.of(ids.get(0)), null);
+        List<ProductInput> inputs = new ArrayList<>(List.of(withImage));
+        for (int i = 0; i < 120; i++) {
+            inputs.add(new ProductInput("Bulk " + i, null, categoryId, null));
+        }
+
+        List<Product> products = productService.bulkCreateProducts(inputs);
+
+        assertThat(products).hasSize(121).extracting(Product::getId).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(imageIds(products.get(0))).containsExactly(ids.get(0));
+        assertThat(productService.createProduct(new ProductInput("After", null, categoryId, null)).getId())
+                .isNotIn(products.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void bulkCreateRejectsTheWholeBatchOnAMissingCategory() {
+        List<ProductInput> inputs = List.of(
+                new ProductInput("Valid", null, categoryId, null),
+                new ProductInput("Orphan", null, Long.MAX_VALUE, null));
+
+        assertThatThrownBy(() -> productService.bulkCreateProducts(inputs)).hasMessageContaining(String.valueOf(Long.MAX_VALUE));
+        assertThatThrownBy(() -> productService.bulkCreateProducts(List.of(new ProductInput(" ", null, categoryId, null))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("index 0");
+    }
+
+    private List<Long> upload(byte[]... images) {
+        List<MockMultipartFile> files = new ArrayList<>();
+        for (byte[] image : images) {
+            files.add(new MockMultipartFile("files", image));
+        }
+        return productImageService.upload(List.copyOf(files)).stream().map(UploadedImage::getId).toList();
+    }
+
+    private byte[] content(ProductImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productImageService.writeContent(productImageService.getImage(image.getId()).orElseThrow(), 0, image.getSize(), out);
+        return out.toByteArray();
+    }
+
+    private List<Long> imageIds(Product product) {
+        return productImageRepository.findByProductIdOrderByImageOrderAsc(product.getId()).stream()
+                .map(ProductImage::getId)
+                .toList();
+    }
+
+    private ProductInput input(List<Long> imageIds, List<String> images) {
+        ProductInput input = new ProductInput("Product", "Description", categoryId, images);
+        input.setImageIds(imageIds);
+        return input;
+    }
+
+    @Test
+    void identicalImagesShareOneStorageKey() {
+        List<Long> ids = upload(PNG, PNG);
+
+        List<String> keys = ids.stream()
+                .map(id -> productImageService.getImage(id).orElseThrow().getStorageKey())
+                .toList();
+        assertThat(keys.get(0)).isEqualTo(keys.get(1)).hasSize(64);
+    }
+}
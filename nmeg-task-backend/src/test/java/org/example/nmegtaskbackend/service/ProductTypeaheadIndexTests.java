@@ -0,0 +1,102 @@
+package org.example.nmegtaskbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.nmegtaskbackend.dto.ProductSuggestion;
+import org.example.nmegtaskbackend.repository.ProductSearchRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ProductTypeaheadIndexTests {
+
+    @Test
+    void matchesEveryWordAsPrefixAndRanksNameMatchesFirst() {
+        ProductTypeaheadIndex index = index();
+        index.put(product(1L, "Desk lamp", "Lighting"), "Adjustable arm");
+        index.put(product(2L, "Floor lamp", "Lighting"), null);
+        index.put(product(3L, "Reading chair", "Lighting"), "Comes with a lamp");
+
+        assertThat(index.suggest("lam", 10)).extracting(ProductSuggestion::getId).containsExactly(1L, 2L, 3L);
+        assertThat(index.suggest("LAMP des", 10)).extracting(ProductSuggestion::getId).containsExactly(1L);
+        assertThat(index.suggest("light", 10)).extracting(ProductSuggestion::getId).containsExactly(1L, 2L, 3L);
+        assertThat(index.suggest("adj lam", 10)).extracting(ProductSuggestion::getId).containsExactly(1L);
+        assertThat(index.suggest("lamp", 1)).extracting(ProductSuggestion::getId).containsExactly(1L);
+        assertThat(index.suggest("sofa", 10)).isEmpty();
+        assertThat(index.suggest(" - ", 10)).isEmpty();
+    }
+
+    @Test
+    void updatesReplaceAndRemoveProducts() {
+        ProductTypeaheadIndex index = index();
+        index.put(product(1L, "Desk lamp", "Lighting"), null);
+
+        index.put(product(1L, "Desk organiser", "Office"), null);
+        assertThat(index.suggest("lamp", 10)).isEmpty();
+        assertThat(index.suggest("org", 10)).extracting(ProductSuggestion::getName).containsExactly("Desk organiser");
+
+        index.remove(1L);
+        assertThat(index.suggest("desk", 10)).isEmpty();
+    }
+
+    @Test
+    void reindexingARenamedCategoryReplacesItsName() {
+        ProductSearchRepository repository = mock(ProductSearchRepository.class);
+        ProductTypeaheadIndex index = new ProductTypeaheadIndex(repository, new SimpleMeterRegistry());
+        index.put(product(1L, "Desk lamp", "Lighting"), "Adjustable arm");
+        doAnswer(invocation -> {
+            BiConsumer<ProductSuggestion, String> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "Desk lamp", "Lamps"), "Adjustable arm");
+            return null;
+        }).when(repository).forEachProductInCategory(eq(1L), any());
+
+        index.reindexCategory(1L);
+
+        assertThat(index.suggest("light", 10)).isEmpty();
+        assertThat(index.suggest("lamps adj", 10)).extracting(ProductSuggestion::getCategoryName).containsExactly("Lamps");
+    }
+
+    @Test
+    void removingADeletedCategorysProductsLeavesOtherCategories() {
+        ProductTypeaheadIndex index = index();
+        index.put(new ProductSuggestion(1L, "Desk lamp", 1L, "Lighting"), null);
+        index.put(new ProductSuggestion(2L, "Floor lamp", 1L, "Lighting"), null);
+        index.put(new ProductSuggestion(3L, "Desk chair", 2L, "Seating"), null);
+
+        List.of(1L, 2L).forEach(index::remove);
+
+        assertThat(index.suggest("light", 10)).isEmpty();
+        assertThat(index.suggest("desk", 10)).extracting(ProductSuggestion::getId).containsExactly(3L);
+    }
+
+    @Test
+    void rebuildLoadsProductsAndKeepsConcurrentChanges() {
+        ProductSearchRepository repository = mock(ProductSearchRepository.class);
+        ProductTypeaheadIndex index = new ProductTypeaheadIndex(repository, new SimpleMeterRegistry());
+        doAnswer(invocation -> {
+            BiConsumer<ProductSuggestion, String> consumer = invocation.getArgument(0);
+            consumer.accept(product(1L, "Desk lamp", "Lighting"), null);
+            // A product saved while the rebuild is still reading
+            index.put(product(2L, "Desk chair", "Seating"), null);
+            return null;
+        }).when(repository).forEachProduct(any());
+
+        index.rebuild();
+
+        assertThat(index.suggest("desk", 10)).extracting(ProductSuggestion::getId).containsExactly(1L, 2L);
+    }
+
+    private static ProductTypeaheadIndex index() {
+        return new ProductTypeaheadIndex(mock(ProductSearchRepository.class), new SimpleMeterRegistry());
+    }
+
+    private static ProductSuggestion product(Long id, String name, String categoryName) {
+        return new ProductSuggestion(id, name, 1L, categoryName);
+    }
+}
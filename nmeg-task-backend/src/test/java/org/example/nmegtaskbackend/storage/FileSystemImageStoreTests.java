@@ -0,0 +1,86 @@
+package org.example.nmegtaskbackend.storage;
+
+import org.example.nmegtaskbackend.dto.ImageContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemImageStoreTests {
+
+    private static final String KEY = "ab".repeat(32);
+    private static final byte[] CONTENT = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @TempDir
+    Path root;
+
+    private FileSystemImageStore store;
+
+    @BeforeEach
+    void createStore() throws IOException {
+        store = new FileSystemImageStore(root);
+    }
+
+    @Test
+    void storesUnderFannedOutPathAndReadsRanges() {
+        store.put(KEY, content(CONTENT));
+
+        assertThat(store.localPath(KEY)).hasValue(root.resolve("ab").resolve("ab").resolve(KEY));
+        assertThat(read(0, CONTENT.length)).isEqualTo(CONTENT);
+        assertThat(read(2, 3)).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void putOfExistingKeyOnlyRefreshesLastUsedTime() throws IOException {
+        store.put(KEY, content(CONTENT));
+        Path path = store.localPath(KEY).orElseThrow();
+        Files.setLastModifiedTime(path, FileTime.from(Instant.EPOCH));
+
+        store.put(KEY, content(new byte[] {9}));
+
+        assertThat(Files.readAllBytes(path)).isEqualTo(CONTENT);
+        try (Stream<String> keys = store.keysLastUsedBefore(Instant.now().minusSeconds(60))) {
+            assertThat(keys).isEmpty();
+        }
+    }
+
+    @Test
+    void listsAndDeletesStaleKeys() {
+        store.put(KEY, content(CONTENT));
+
+        try (Stream<String> keys = store.keysLastUsedBefore(Instant.now().plusSeconds(60))) {
+            assertThat(keys).containsExactly(KEY);
+        }
+        assertThat(store.deleteIfLastUsedBefore(KEY, Instant.now().minusSeconds(60))).isFalse();
+        assertThat(store.localPath(KEY).orElseThrow()).exists();
+        assertThat(store.deleteIfLastUsedBefore(KEY, Instant.now().plusSeconds(60))).isTrue();
+        assertThat(store.localPath(KEY).orElseThrow()).doesNotExist();
+    }
+
+    @Test
+    void rejectsKeysThatAreNotHashes() {
+        assertThatThrownBy(() -> store.put("../../etc/passwd", content(CONTENT)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] read(long offset, long length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.read(KEY, offset, length, out);
+        return out.toByteArray();
+    }
+
+    private static ImageContent content(byte[] bytes) {
+        return new ImageContent(new ByteArrayResource(bytes), bytes.length, null);
+    }
+}
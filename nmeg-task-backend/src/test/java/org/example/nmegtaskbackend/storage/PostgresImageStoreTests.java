@@ -0,0 +1,110 @@
+package org.example.nmegtaskbackend.storage;
+
+import org.example.nmegtaskbackend.dto.ImageContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The context runs with the filesystem store; this builds a PostgresImageStore over the same H2
+// database, whose image_blob table comes from the ImageBlob entity. Blobs are inserted directly,
+// since put() only inserts through ON CONFLICT.
+@SpringBootTest
+@ActiveProfiles("test")
+class PostgresImageStoreTests {
+
+    private static final String KEY = "cd".repeat(32);
+    private static final Instant STORED_AT = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant CUTOFF = STORED_AT.plusSeconds(60);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private PostgresImageStore store;
+
+    @BeforeEach
+    void insertStaleBlob() {
+        store = new PostgresImageStore(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM product_image");
+        jdbcTemplate.update("DELETE FROM image_blob");
+        jdbcTemplate.update("INSERT INTO image_blob (storage_key, data, size, last_used_at) VALUES (?, ?, 3, ?)",
+                KEY, new byte[] {1, 2, 3}, Timestamp.from(STORED_AT));
+    }
+
+    @Test
+    void deletesStaleUnreferencedBlobs() {
+        assertThat(store.deleteIfLastUsedBefore(KEY, CUTOFF)).isTrue();
+        assertThat(blobExists()).isFalse();
+    }
+
+    @Test
+    void keepsReferencedBlobs() {
+        jdbcTemplate.update("INSERT INTO product_image (storage_key, image_order, content_type, size, created_at) VALUES (?, 0, 'image/png', 3, CURRENT_TIMESTAMP)", KEY);
+
+        assertThat(store.deleteIfLastUsedBefore(KEY, CUTOFF)).isFalse();
+        assertThat(blobExists()).isTrue();
+    }
+
+    @Test
+    void keepsBlobsStoredAgainAfterTheCutoff() {
+        store.put(KEY, new ImageContent(new ByteArrayResource(new byte[] {1, 2, 3}), 3, "image/png"));
+
+        assertThat(store.deleteIfLastUsedBefore(KEY, CUTOFF)).isFalse();
+        assertThat(blobExists()).isTrue();
+    }
+
+    // An upload that deduplicates against the blob holds its row until commit; the delete waits
+    // for it and then sees the refreshed last-used time
+    @Test
+    void waitsForAnUploadThatIsStoringTheBlob() throws Exception {
+        CountDownLatch stored = new CountDownLatch(1);
+        CountDownLatch deleting = new CountDownLatch(1);
+        CompletableFuture<Void> upload = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            store.put(KEY, new ImageContent(new ByteArrayResource(new byte[] {1, 2, 3}), 3, "image/png"));
+            stored.countDown();
+            await(deleting);
+            sleep(200);
+        }));
+
+        assertThat(stored.await(5, TimeUnit.SECONDS)).isTrue();
+        deleting.countDown();
+        assertThat(store.deleteIfLastUsedBefore(KEY, CUTOFF)).isFalse();
+        upload.get(5, TimeUnit.SECONDS);
+        assertThat(blobExists()).isTrue();
+    }
+
+    private boolean blobExists() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM image_blob WHERE storage_key = ?", Integer.class, KEY) > 0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
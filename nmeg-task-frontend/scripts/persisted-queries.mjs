@@ -0,0 +1,57 @@
+// Generates the persisted query manifest from the operations in src/graphql.
+//
+//   npm run persisted-queries
+//
+// Writes two files, both committed:
+// - nmeg-task-backend/src/main/resources/graphql/persisted-queries.json, an Apollo persisted query
+//   manifest that the backend parses and validates at startup (and, in allowlist mode, the only
+//   operations it executes)
+// - src/graphql/persisted-query-ids.json, mapping a SHA-256 of each gql template to its manifest
+//   id, which the Apollo client sends instead of the query
+//
+// Bodies are the templates with whitespace collapsed and __typename added to every selection
+// set below the root, as Apollo's cache adds it before sending. Run it after editing a query;
+// an operation missing from the manifest falls back to an automatic persisted query, which
+// allowlist mode rejects.
+import { createHash } from 'node:crypto'
+import { readFileSync, writeFileSync } from 'node:fs'
+
+const SOURCES = ['src/graphql/queries.ts', 'src/graphql/mutations.ts']
+const MANIFEST = '../nmeg-task-backend/src/main/resources/graphql/persisted-queries.json'
+const IDS = 'src/graphql/persisted-query-ids.json'
+
+const sha256 = (text) => createHash('sha256').update(text).digest('hex')
+
+function addTypename(body) {
+  let depth = 0
+  let result = ''
+  for (const char of body) {
+    if (char === '{') {
+      depth++
+    } else if (char === '}') {
+      if (depth > 1) {
+        result += '__typename '
+      }
+      depth--
+    }
+    result += char
+  }
+  return result
+}
+
+const operations = []
+const ids = {}
+for (const file of SOURCES) {
+  for (const match of readFileSync(file, 'utf8').matchAll(/export const \w+ = gql`([\s\S]*?)`/g)) {
+    const template = match[1]
+    const [, type, name] = template.match(/^\s*(query|mutation)\s+(\w+)/)
+    const body = addTypename(template.replace(/\s+/g, ' ').trim())
+    const id = sha256(body)
+    operations.push({ id, name, type, body })
+    ids[sha256(template)] = id
+  }
+}
+
+writeFileSync(MANIFEST, JSON.stringify({ format: 'apollo-persisted-query-manifest', version: 1, operations }, null, 2) + '\n')
+writeFileSync(IDS, JSON.stringify(ids, null, 2) + '\n')
+console.log(`Wrote ${operations.length} operations to ${MANIFEST}`)
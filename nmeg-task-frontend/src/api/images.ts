@@ -0,0 +1,20 @@
+import type { ProductImage, UploadedImage } from '../types'
+
+export const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080'
+
+// Image bytes are served by the backend's /images endpoint rather than inlined in GraphQL.
+// Pass a width (64, 200, 400 or 800) to get a server-resized thumbnail instead of the original.
+export const imageUrl = (image: ProductImage, width?: number) =>
+  `${API_BASE_URL}${image.url}${width ? `?w=${width}` : ''}`
+
+// Streams the files to the backend as multipart; the returned ids go into ProductInput.imageIds
+export const uploadImages = async (files: File[]): Promise<UploadedImage[]> => {
+  const body = new FormData()
+  files.forEach(file => body.append('files', file))
+
+  const response = await fetch(`${API_BASE_URL}/images`, { method: 'POST', body })
+  if (!response.ok) {
+    throw new Error(`Image upload failed: ${await response.text()}`)
+  }
+  return response.json()
+}
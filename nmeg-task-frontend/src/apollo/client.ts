@@ -1,5 +1,8 @@
 import { ApolloClient, InMemoryCache, createHttpLink } from '@apollo/client/core'
 import { setContext } from '@apollo/client/link/context'
+import { createPersistedQueryLink } from '@apollo/client/link/persisted-queries'
+import { print } from 'graphql'
+import persistedQueryIds from '@/graphql/persisted-query-ids.json'
 
 const httpLink = createHttpLink({
   uri: import.meta.env.VITE_GRAPHQL_ENDPOINT || 'http://localhost:8080/graphql',
@@ -14,8 +17,26 @@ const authLink = setContext((_: any, { headers }: { headers: any }) => {
   }
 })
 
+async function sha256(text: string): Promise<string> {
+  const digest = await crypto.subtle.digest('SHA-256', new TextEncoder().encode(text))
+  return Array.from(new Uint8Array(digest), (byte) => byte.toString(16).padStart(2, '0')).join('')
+}
+
+// Requests carry a hash instead of the query. Operations from src/graphql are looked up by their
+// gql template in the manifest ids (npm run persisted-queries); anything else, including a query
+// edited since the manifest was generated, is hashed and registered with the server on first use.
+// Hashed queries are sent with GET, so the browser revalidates them with the server's ETags
+const persistedQueryLink = createPersistedQueryLink({
+  useGETForHashedQueries: true,
+  generateHash: async (document) => {
+    const ids: Record<string, string> = persistedQueryIds
+    const template = document.loc?.source.body
+    return (template && ids[await sha256(template)]) || sha256(print(document))
+  },
+})
+
 export const apolloClient = new ApolloClient({
-  link: authLink.concat(httpLink),
+  link: authLink.concat(persistedQueryLink).concat(httpLink),
   cache: new InMemoryCache(),
   defaultOptions: {
     watchQuery: {
@@ -39,7 +39,13 @@ export const CREATE_PRODUCT = gql`
         id
         name
       }
-      images
+      images {
+        id
+        order
+        contentType
+        size
+        url
+      }
     }
   }
 `
@@ -55,7 +61,13 @@ export const UPDATE_PRODUCT = gql`
         id
         name
       }
-      images
+      images {
+        id
+        order
+        contentType
+        size
+        url
+      }
     }
   }
 `
@@ -1,14 +1,22 @@
 import { gql } from '@apollo/client/core'
 
 export const GET_CATEGORIES = gql`
-  query GetCategories {
-    categories {
-      id
-      name
-      validFrom
-      validTo
-      products {
-        id
+  query GetCategories($first: Int = 100, $after: String) {
+    categories(first: $first, after: $after) {
+      edges {
+        node {
+          id
+          name
+          validFrom
+          validTo
+          products {
+            id
+          }
+        }
+      }
+      pageInfo {
+        hasNextPage
+        endCursor
       }
     }
   }
@@ -31,31 +39,53 @@ export const GET_CATEGORY = gql`
 `
 
 export const SEARCH_CATEGORIES = gql`
-  query SearchCategories($name: String!) {
-    searchCategories(name: $name) {
-      id
-      name
-      validFrom
-      validTo
-      products {
-        id
+  query SearchCategories($name: String!, $first: Int = 100, $after: String) {
+    searchCategories(name: $name, first: $first, after: $after) {
+      edges {
+        node {
+          id
+          name
+          validFrom
+          validTo
+          products {
+            id
+          }
+        }
+      }
+      pageInfo {
+        hasNextPage
+        endCursor
       }
     }
   }
 `
 
 export const GET_PRODUCTS = gql`
-  query GetProducts {
-    products {
-      id
-      name
-      description
-      categoryId
-      category {
-        id
-        name
+  query GetProducts($first: Int = 100, $after: String) {
+    products(first: $first, after: $after) {
+      edges {
+        node {
+          id
+          name
+          description
+          categoryId
+          category {
+            id
+            name
+          }
+          images {
+            id
+            order
+            contentType
+            size
+            url
+          }
+        }
+      }
+      pageInfo {
+        hasNextPage
+        endCursor
       }
-      images
     }
   }
 `
@@ -71,23 +101,55 @@ export const GET_PRODUCT = gql`
         id
         name
       }
-      images
+      images {
+        id
+        order
+        contentType
+        size
+        url
+      }
+    }
+  }
+`
+
+// Ranked by relevance; matches name and description
+export const SEARCH_PRODUCTS = gql`
+  query SearchProducts($query: String!, $categoryId: ID, $first: Int = 100, $after: String) {
+    searchProducts(query: $query, categoryId: $categoryId, first: $first, after: $after) {
+      edges {
+        node {
+          id
+          name
+          description
+          categoryId
+          category {
+            id
+            name
+          }
+          images {
+            id
+            order
+            contentType
+            size
+            url
+          }
+        }
+      }
+      pageInfo {
+        hasNextPage
+        endCursor
+      }
     }
   }
 `
 
-export const SEARCH_PRODUCTS_BY_NAME = gql`
-  query SearchProductsByName($name: String!) {
-    searchProductsByName(name: $name) {
+// Served from the backend's in-memory typeahead index
+export const SUGGEST_PRODUCTS = gql`
+  query SuggestProducts($prefix: String!, $limit: Int = 8) {
+    suggestProducts(prefix: $prefix, limit: $limit) {
       id
       name
-      description
-      categoryId
-      category {
-        id
-        name
-      }
-      images
+      categoryName
     }
   }
 `
@@ -18,14 +18,40 @@ export interface Product {
   description?: string
   categoryId: string
   category?: Category
-  images?: string[]
+  images?: ProductImage[]
+}
+
+export interface ProductImage {
+  id: string
+  order: number
+  contentType: string
+  size: number
+  url: string
 }
 
 export interface ProductInput {
   name: string
   description?: string
   categoryId: string
-  images?: string[]
+  imageIds?: string[]
+}
+
+export interface UploadedImage {
+  id: string
+  contentType: string
+  size: number
+  url: string
+}
+
+// Relay-style connection returned by paginated queries
+export interface PageInfo {
+  hasNextPage: boolean
+  endCursor?: string
+}
+
+export interface Connection<T> {
+  edges: { node: T }[]
+  pageInfo: PageInfo
 }
 
 // GraphQL response types
@@ -54,17 +80,24 @@ export interface DeleteProductData {
 }
 
 export interface CategoriesData {
-  categories: Category[]
+  categories: Connection<Category>
 }
 
 export interface ProductsData {
-  products: Product[]
+  products: Connection<Product>
 }
 
 export interface SearchCategoriesData {
-  searchCategories: Category[]
+  searchCategories: Connection<Category>
+}
+
+export interface ProductSuggestion {
+  id: string
+  name: string
+  categoryId: string
+  categoryName: string
 }
 
-export interface SearchProductsByNameData {
-  searchProductsByName: Product[]
+export interface SearchProductsData {
+  searchProducts: Connection<Product>
 }